@@ -0,0 +1,119 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and JSON serialization of book lists, as done for every
+ * list, search and export response. The fragments variants go through BookJsonWriter
+ * with every book already cached, as for a library whose books rarely change; add
+ * -prof gc to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookDtoBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    private int books;
+
+    private List<Book> entities;
+    private List<BookDto> dtos;
+    // Configured like the ObjectMapper Spring Boot builds (java.time support, ISO dates)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AnnotationConfigApplicationContext context;
+    private BookJsonWriter bookJsonWriter;
+
+    @Setup
+    public void setUp() {
+        User owner = new User();
+        owner.setId(1L);
+        LocalDateTime now = LocalDateTime.now();
+        entities = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            Book book = new Book();
+            book.setId((long) i + 1);
+            book.setTitle("The Title of Book Number " + i);
+            book.setAuthor("Author " + (i % 500));
+            book.setDescription(i % 3 == 0 ? null : "A description long enough to look like a real blurb, #" + i);
+            book.setImagePath(i % 2 == 0 ? null : "3f2ac9e1b0d4" + i + ".jpg");
+            book.setCreatedAt(now.minusDays(i));
+            book.setUpdatedAt(now.minusHours(i));
+            book.setPagesTotal(300);
+            book.setPagesRead(i % 300);
+            book.setUser(owner);
+            entities.add(book);
+        }
+        dtos = toDtos();
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.registerBean(ObjectMapper.class, () -> objectMapper);
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(BookJsonWriter.class);
+        context.refresh();
+        bookJsonWriter = context.getBean(BookJsonWriter.class);
+        bookJsonWriter.toJson(dtos);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> fromEntity() {
+        return toDtos();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] fromEntityAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(toDtos());
+    }
+
+    @Benchmark
+    public byte[] serializeFragments() {
+        return bookJsonWriter.toJson(dtos);
+    }
+
+    @Benchmark
+    public byte[] fromEntityAndSerializeFragments() {
+        return bookJsonWriter.toJson(toDtos());
+    }
+
+    private List<BookDto> toDtos() {
+        List<BookDto> result = new ArrayList<>(entities.size());
+        for (Book book : entities) {
+            result.add(BookDto.fromEntity(book));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book queries against the real repositories and services on an embedded H2 database.
+ * Users own {@value #BOOKS_PER_USER} books each; run with {@code -p books=1000000} for
+ * the large data set (and a bigger heap, see the README).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class BookRepositoryBenchmark {
+
+    static final int BOOKS_PER_USER = 100;
+    private static final int INSERT_BATCH = 10_000;
+    private static final int VOCABULARY = 2_000;
+
+    @Param({"100000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private BookQueryService bookQueryService;
+    private int users;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DevOpsProjectApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jmx.enabled=false",
+                        "--file.upload-dir=target/benchmark-uploads",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.Personal_Libarary_Management_System.DevOps_Project=WARN");
+        bookRepository = context.getBean(BookRepository.class);
+        bookQueryService = context.getBean(BookQueryService.class);
+
+        users = Math.max(1, books / BOOKS_PER_USER);
+        words = new String[VOCABULARY];
+        Random random = new Random(42);
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(random);
+        }
+        seed(context.getBean(JdbcTemplate.class), random);
+        // The startup rebuild ran on the empty database
+        context.getBean(BookSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Ownership lookup by primary key (update/delete path). */
+    @Benchmark
+    public Long findOwnerId() {
+        return bookRepository.findOwnerId(ThreadLocalRandom.current().nextLong(1, books + 1)).orElse(null);
+    }
+
+    /** First keyset page of the dashboard listing. */
+    @Benchmark
+    public BookPage listFirstPage() {
+        return bookQueryService.listBooks(randomUser(), BookSort.UPDATED, null, null, 50, false);
+    }
+
+    @Benchmark
+    public BookPage listFirstPageWithTotal() {
+        return bookQueryService.listBooks(randomUser(), BookSort.UPDATED, null, null, 50, true);
+    }
+
+    /** The unpaged listing the API used before keyset pagination. */
+    @Benchmark
+    public List<Book> findByUserId() {
+        return bookRepository.findByUserId(randomUser());
+    }
+
+    /** Ranked search served from the in-memory index. */
+    @Benchmark
+    public BookPage searchIndexed() {
+        return bookQueryService.searchBooks(randomUser(), null, null, randomWord(), null, null, null, 50, false);
+    }
+
+    /** The LIKE query that search falls back to while the index is not built. */
+    @Benchmark
+    public List<Book> searchLike() {
+        Long userId = randomUser();
+        String pattern = "%" + randomWord() + "%";
+        Specification<Book> spec = (root, query, cb) -> cb.and(
+                cb.equal(root.get("user").get("id"), userId),
+                cb.like(cb.lower(root.get("title")), pattern));
+        return bookRepository.findBy(spec, q -> q.sortBy(BookSort.UPDATED.toSort(Sort.Direction.DESC)).limit(50).all());
+    }
+
+    private Long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    private String randomWord() {
+        return words[ThreadLocalRandom.current().nextInt(VOCABULARY)];
+    }
+
+    private void seed(JdbcTemplate jdbc, Random random) {
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int u = 1; u <= users; u++) {
+            rows.add(new Object[]{u, "user" + u, "{noop}", "user" + u + "@example.com"});
+            if (rows.size() == INSERT_BATCH || u == users) {
+                jdbc.batchUpdate("INSERT INTO users (id, username, password, email) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+
+        LocalDateTime start = LocalDateTime.now().minusYears(3);
+        for (int b = 1; b <= books; b++) {
+            Timestamp created = Timestamp.valueOf(start.plusMinutes(random.nextInt(1_500_000)));
+            Timestamp updated = new Timestamp(created.getTime() + random.nextInt(100_000_000));
+            String title = capitalize(words[random.nextInt(VOCABULARY)]) + " " + words[random.nextInt(VOCABULARY)]
+                    + " " + words[random.nextInt(VOCABULARY)];
+            String author = capitalize(words[random.nextInt(VOCABULARY)]) + " " + capitalize(words[random.nextInt(VOCABULARY)]);
+            rows.add(new Object[]{b, title, author, "About " + title.toLowerCase(), null, created, updated, 300,
+                    random.nextInt(300), (b - 1) % users + 1});
+            if (rows.size() == INSERT_BATCH || b == books) {
+                jdbc.batchUpdate("INSERT INTO books (id, title, author, description, image_path, created_at, updated_at, "
+                        + "pages_total, pages_read, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static String word(Random random) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            word.append(consonants.charAt(random.nextInt(consonants.length())));
+            word.append(vowels.charAt(random.nextInt(vowels.length())));
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -26,10 +26,19 @@ CREATE TABLE books (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Book id generator (Hibernate pooled sequence, emulated by a table on MySQL)
+CREATE TABLE books_seq (
+    next_val BIGINT
+);
+
 -- Create indexes for better performance
 CREATE INDEX idx_books_user_id ON books(user_id);
 CREATE INDEX idx_books_title ON books(title);
 CREATE INDEX idx_books_author ON books(author);
+CREATE INDEX idx_books_user_updated ON books(user_id, updated_at, id);
+CREATE INDEX idx_books_user_created ON books(user_id, created_at, id);
+CREATE INDEX idx_books_user_title ON books(user_id, title, id);
+CREATE INDEX idx_books_user_author ON books(user_id, author, id);
 CREATE INDEX idx_users_username ON users(username);
 CREATE INDEX idx_users_email ON users(email);
 
@@ -41,4 +50,7 @@ INSERT INTO users (username, password, email) VALUES
 INSERT INTO books (title, author, description, user_id) VALUES 
 ('The Great Gatsby', 'F. Scott Fitzgerald', 'A classic American novel', 1),
 ('To Kill a Mockingbird', 'Harper Lee', 'A gripping tale of racial injustice', 1),
-('1984', 'George Orwell', 'A dystopian social science fiction novel', 2);
\ No newline at end of file
+('1984', 'George Orwell', 'A dystopian social science fiction novel', 2);
+
+-- Start the id generator above the sample books
+INSERT INTO books_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM books;
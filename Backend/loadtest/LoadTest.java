@@ -0,0 +1,185 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load test: each client thread sends its next request as soon as the
+ * previous one completes. Reports throughput, latency and, when the server's pid is
+ * given, server CPU time per request.
+ *
+ * Runs without a build step (Java 11+ single-file launch):
+ *
+ *   java loadtest/LoadTest.java http://localhost:4000/api/images/<file> \
+ *        --threads 16 --seconds 20 --pid <server pid> [--conditional] [--range 0-1023]
+ *   java loadtest/LoadTest.java "http://localhost:4000/api/books/user?size=20" \
+ *        --threads 2000 --header "Authorization: Bearer <token>"
+ *
+ * --conditional  sends the ETag from a first response as If-None-Match (measures 304s)
+ * --range a-b    requests a byte range (measures 206s)
+ * --header h: v  adds a request header (repeatable)
+ *
+ * Every client holds its own connection, so raise the open-file limit (ulimit -n) on
+ * both sides for thousands of clients.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: LoadTest <url> [--threads N] [--seconds S] [--warmup S] [--pid P]"
+                    + " [--conditional] [--range a-b] [--header 'Name: value']...");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int threads = 16;
+        int seconds = 20;
+        int warmup = 5;
+        long pid = -1;
+        boolean conditional = false;
+        String range = null;
+        List<String> headers = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--pid" -> pid = Long.parseLong(args[++i]);
+                case "--conditional" -> conditional = true;
+                case "--range" -> range = args[++i];
+                case "--header" -> headers.add(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(60));
+        for (String header : headers) {
+            int colon = header.indexOf(':');
+            builder.header(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+        }
+        if (conditional) {
+            Optional<String> etag = client.send(builder.build(),
+                    HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag");
+            builder.header("If-None-Match", etag.orElseThrow(() -> new IllegalStateException("No ETag in response")));
+        }
+        if (range != null) {
+            builder.header("Range", "bytes=" + range);
+        }
+        HttpRequest request = builder.build();
+
+        System.out.printf("%s, %d threads, %ds warm-up, %ds measured%n", uri, threads, warmup, seconds);
+        run(client, request, threads, warmup, -1);
+        Result result = run(client, request, threads, seconds, pid);
+        result.print(seconds);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int threads, int seconds, long pid)
+            throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        Duration serverCpuBefore = cpu(pid);
+        Duration clientCpuBefore = cpu(ProcessHandle.current().pid());
+
+        for (int t = 0; t < threads; t++) {
+            // Small stacks so thousands of clients fit in one JVM
+            Thread worker = new Thread(null, () -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            result.record(response.statusCode(), response.body().length);
+                            if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                            }
+                            latencies[count++] = System.nanoTime() - start;
+                        } catch (Exception e) {
+                            result.errors.increment();
+                        }
+                    }
+                } finally {
+                    result.addLatencies(Arrays.copyOf(latencies, count));
+                    done.countDown();
+                }
+            }, "client-" + t, 256 * 1024);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+
+        if (pid > 0) {
+            result.serverCpu = cpu(pid).minus(serverCpuBefore);
+        }
+        result.clientCpu = cpu(ProcessHandle.current().pid()).minus(clientCpuBefore);
+        return result;
+    }
+
+    private static Duration cpu(long pid) {
+        if (pid <= 0) {
+            return Duration.ZERO;
+        }
+        return ProcessHandle.of(pid)
+                .flatMap(p -> p.info().totalCpuDuration())
+                .orElse(Duration.ZERO);
+    }
+
+    private static final class Result {
+        final LongAdder bytes = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final List<long[]> latencies = new ArrayList<>();
+        Duration serverCpu;
+        Duration clientCpu;
+
+        void record(int status, int length) {
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            bytes.add(length);
+        }
+
+        synchronized void addLatencies(long[] nanos) {
+            latencies.add(nanos);
+        }
+
+        void print(int seconds) {
+            long total = 0;
+            for (LongAdder count : statuses.values()) {
+                total += count.sum();
+            }
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+
+            Map<Integer, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+            System.out.printf("requests     %d (%s), %d errors%n", total, byStatus, errors.sum());
+            System.out.printf("throughput   %.0f req/s, %.1f MB/s%n", total / (double) seconds,
+                    bytes.sum() / (double) seconds / (1024 * 1024));
+            if (all.length > 0) {
+                System.out.printf("latency      p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                        all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+            }
+            if (serverCpu != null && total > 0) {
+                System.out.printf("server CPU   %.1f s total, %.1f us/request%n",
+                        serverCpu.toNanos() / 1e9, serverCpu.toNanos() / 1e3 / total);
+            }
+            if (total > 0) {
+                System.out.printf("client CPU   %.1f s total, %.1f us/request%n",
+                        clientCpu.toNanos() / 1e9, clientCpu.toNanos() / 1e3 / total);
+            }
+        }
+    }
+}
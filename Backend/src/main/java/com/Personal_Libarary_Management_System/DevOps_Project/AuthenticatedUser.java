@@ -0,0 +1,23 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * Principal placed in the security context by JwtAuthenticationFilter once the
+ * token has been verified, so controllers do not have to parse the JWT again.
+ */
+public class AuthenticatedUser {
+    private final Long userId;
+    private final String username;
+
+    public AuthenticatedUser(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,184 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Read-through copies of remote blobs on local disk, so they can be sent with sendfile
+ * and each one is downloaded once per node. Bounded by total size, least recently used
+ * first out. Concurrent misses on the same key share one download.
+ */
+class BlobDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobDiskCache.class);
+
+    private static final String TEMP_SUFFIX = ".part";
+
+    /**
+     * Writes the blob into the given file; false when the blob does not exist.
+     */
+    interface Loader {
+        boolean load(Path target) throws IOException;
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+
+    // Key to file size, in access order; guarded by itself
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    BlobDiskCache(Path dir, long maxBytes, MeterRegistry meterRegistry) throws IOException {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        Files.createDirectories(this.dir);
+        hits = Counter.builder("images.store.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("images.store.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("images.store.cache.size", this, cache -> cache.currentBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        restore();
+    }
+
+    /**
+     * The cached file for key, loading it on a miss; null when the blob does not exist.
+     */
+    Path get(String key, Loader loader) throws IOException {
+        Path path = resolve(key);
+        synchronized (entries) {
+            if (entries.get(key) != null) {
+                hits.increment();
+                return path;
+            }
+        }
+        misses.increment();
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> running = loading.putIfAbsent(key, download);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        try {
+            Path loaded = load(key, path, loader);
+            download.complete(loaded);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key);
+        }
+    }
+
+    void evict(String key) throws IOException {
+        synchronized (entries) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path load(String key, Path path, Loader loader) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), ".blob-", TEMP_SUFFIX);
+        try {
+            if (!loader.load(temp)) {
+                return null;
+            }
+            long size = Files.size(temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            add(key, size);
+            return path;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void add(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            // The entry just added is the most recent, so it is never the one evicted here
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && entries.size() > 1 && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String old : evicted) {
+            try {
+                Files.deleteIfExists(resolve(old));
+            } catch (IOException e) {
+                logger.warn("Could not remove {} from the blob cache", old, e);
+            }
+        }
+    }
+
+    // Files from before a restart are kept, oldest first in line for eviction
+    private void restore() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.filter(Files::isRegularFile).forEach(files::add);
+        }
+        Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                Files.deleteIfExists(file);
+            } else {
+                attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+            }
+        }
+        attributes.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()))
+                .forEach(entry -> add(dir.relativize(entry.getKey()).toString().replace('\\', '/'),
+                        entry.getValue().size()));
+        logger.info("Blob cache at {} holds {} files, {} bytes", dir, entries.size(), currentBytes());
+    }
+
+    private long currentBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private Path resolve(String key) {
+        Path path = dir.resolve(key).normalize();
+        if (!path.startsWith(dir) || path.equals(dir)) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return path;
+    }
+}
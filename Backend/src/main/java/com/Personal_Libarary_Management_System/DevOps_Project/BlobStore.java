@@ -0,0 +1,73 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Where cover images and their thumbnails are kept, by key ("&lt;hash&gt;.png",
+ * "thumbs/256/&lt;hash&gt;.jpg"). LocalBlobStore keeps them under file.upload-dir on this
+ * node; S3BlobStore keeps them in an S3-compatible bucket that every instance shares.
+ * Chosen with images.store.type (local or s3).
+ */
+public interface BlobStore {
+
+    /**
+     * Size and modification time of the blob, or null when it does not exist.
+     */
+    BlobInfo stat(String key) throws IOException;
+
+    /**
+     * Stores length bytes under key, replacing any blob already there. The content is
+     * streamed and may be opened again to retry, so it is never held in memory whole.
+     */
+    void put(String key, InputStreamSource content, long length, String contentType) throws IOException;
+
+    /**
+     * A file on this node's disk with the blob's content, or null when the blob does not
+     * exist. Remote stores download it into their local cache first.
+     */
+    Path localFile(String key) throws IOException;
+
+    /**
+     * A URL clients can fetch the blob from directly until ttl has passed, answered with
+     * the given Cache-Control; null when the store cannot serve blobs itself.
+     */
+    default URI presignedUrl(String key, Duration ttl, String cacheControl) {
+        return null;
+    }
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Marks an existing blob as just written, so ImageGarbageCollector's grace period
+     * starts again for a stored blob that a new upload reuses.
+     */
+    void touch(String key) throws IOException;
+
+    /**
+     * Calls the visitor for every blob, as the listing is read rather than collected first.
+     */
+    void walk(Visitor visitor) throws IOException;
+
+    interface Visitor {
+        void visit(String key, BlobInfo info) throws IOException;
+    }
+
+    final class BlobInfo {
+        private final long length;
+        private final long lastModified;
+
+        public BlobInfo(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        public long getLength() { return length; }
+        // Epoch milliseconds
+        public long getLastModified() { return lastModified; }
+    }
+}
@@ -5,10 +5,23 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    // Keyset pagination: one range scan per page for each supported sort order
+    @Index(name = "idx_books_user_updated", columnList = "user_id, updated_at, id"),
+    @Index(name = "idx_books_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_books_user_title", columnList = "user_id, title, id"),
+    @Index(name = "idx_books_user_author", columnList = "user_id, author, id"),
+    // Image quota sum, read from the index alone
+    @Index(name = "idx_books_user_image", columnList = "user_id, image_size")
+})
 public class Book {
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled ids let Hibernate batch inserts (IDENTITY forces one round trip per row).
+    // On MySQL the sequence is emulated by the books_seq table, see BookIdSequenceAligner.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = Book.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -23,18 +36,27 @@ public class Book {
     @Column(name = "image_path")
     private String imagePath;
 
+    // Bytes of the uploaded image, counted against the owner's image quota
+    @Column(name = "image_size")
+    private Long imageSize;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @Column(name = "pages_total")
+    @Column(name = "pages_total", nullable = false)
     private Integer pagesTotal = 0;
 
-    @Column(name = "pages_read")
+    @Column(name = "pages_read", nullable = false)
     private Integer pagesRead = 0;
 
+    // Incremented on every write (also by the progress SQL); the book's ETag
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
@@ -62,6 +84,8 @@ public class Book {
     public void setDescription(String description) { this.description = description; }
     public String getImagePath() { return imagePath; }
     public void setImagePath(String imagePath) { this.imagePath = imagePath; }
+    public Long getImageSize() { return imageSize; }
+    public void setImageSize(Long imageSize) { this.imageSize = imageSize; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
@@ -70,6 +94,7 @@ public class Book {
     public void setPagesTotal(Integer pagesTotal) { this.pagesTotal = pagesTotal; }
     public Integer getPagesRead() { return pagesRead; }
     public void setPagesRead(Integer pagesRead) { this.pagesRead = pagesRead; }
+    public long getVersion() { return version; }
     @JsonIgnore
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
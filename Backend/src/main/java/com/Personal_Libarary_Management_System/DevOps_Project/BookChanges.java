@@ -0,0 +1,26 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.util.List;
+
+/**
+ * One page of the changes feed: books created or updated and ids of books deleted since the
+ * request cursor, plus the cursor to send next time.
+ */
+public class BookChanges {
+    private final List<BookDto> changed;
+    private final List<Long> deleted;
+    private final String cursor;
+    private final boolean hasMore;
+
+    public BookChanges(List<BookDto> changed, List<Long> deleted, String cursor, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<BookDto> getChanged() { return changed; }
+    public List<Long> getDeleted() { return deleted; }
+    public String getCursor() { return cursor; }
+    public boolean isHasMore() { return hasMore; }
+}
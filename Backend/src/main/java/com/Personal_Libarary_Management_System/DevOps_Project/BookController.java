@@ -1,19 +1,32 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/books")
@@ -28,13 +41,62 @@ public class BookController {
     private UserRepository userRepository;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private BookSearchIndex searchIndex;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    @Autowired
+    private BookQueryService bookQueryService;
+
+    @Autowired
+    private BookExportService bookExportService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${books.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${books.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${books.progress.max-batch:500}")
+    private int maxProgressBatch;
+
+    @Autowired
+    private BookProgressService bookProgressService;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private BookSyncService bookSyncService;
+
+    @Autowired
+    private LibraryEventHub libraryEventHub;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private LibraryCache libraryCache;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private BookJsonWriter bookJsonWriter;
+
+    @Value("${images.quota.per-user:500MB}")
+    private DataSize imageQuota;
 
     @PostMapping
-    public ResponseEntity<?> addBook(@RequestHeader(value = "Authorization", required = false) String token,
+    public ResponseEntity<?> addBook(@AuthenticationPrincipal AuthenticatedUser principal,
+                                   @RequestHeader(value = "Authorization", required = false) String token,
                                    @RequestParam("title") String title,
                                    @RequestParam("author") String author,
                                    @RequestParam(value = "description", required = false) String description,
@@ -45,15 +107,12 @@ public class BookController {
             if (token == null || token.isEmpty()) {
                 return ResponseEntity.status(401).body(new ApiResponse("Missing Authorization header"));
             }
-
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
 
-            Long userId = jwtUtil.extractUserId(jwt);
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (!userOpt.isPresent()) {
+            Long userId = principal.getUserId();
+            if (libraryCache.findUser(userId) == null) {
                 return ResponseEntity.status(404).body(new ApiResponse("User not found"));
             }
 
@@ -61,27 +120,46 @@ public class BookController {
             book.setTitle(title);
             book.setAuthor(author);
             book.setDescription(description);
-            book.setUser(userOpt.get());
+            // The owner is known to exist; a reference is enough for the foreign key
+            book.setUser(userRepository.getReferenceById(userId));
 
             // Pages validation and defaulting
             int total = pagesTotal != null ? pagesTotal : 0;
             int read = pagesRead != null ? pagesRead : 0;
-            if (total < 0 || read < 0) {
-                return ResponseEntity.badRequest().body(new ApiResponse("pagesTotal and pagesRead must be non-negative"));
-            }
-            if (read > total) {
-                return ResponseEntity.badRequest().body(new ApiResponse("pagesRead cannot exceed pagesTotal"));
+            String pagesError = BookValidation.pagesError(total, read);
+            if (pagesError != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse(pagesError));
             }
             book.setPagesTotal(total);
             book.setPagesRead(read);
 
-            if (image != null && !image.isEmpty()) {
+            boolean uploaded = image != null && !image.isEmpty();
+            if (uploaded) {
+                if (exceedsImageQuota(userId, null, image.getSize())) {
+                    return imageQuotaExceeded();
+                }
                 String imagePath = saveImage(image);
                 book.setImagePath(imagePath);
+                book.setImageSize(image.getSize());
             }
 
-            Book savedBook = bookRepository.save(book);
-            return ResponseEntity.ok(BookDto.fromEntity(savedBook));
+            // The stats counters change in the same transaction as the row
+            Book savedBook = transactionTemplate.execute(status -> {
+                if (uploaded && exceedsImageQuotaLocked(userId, null, book.getImageSize())) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                Book saved = bookRepository.save(book);
+                bookStatsService.apply(userId, new BookStatsService.Delta().add(saved.getAuthor(), saved.getPagesRead(), saved.getPagesTotal()));
+                return saved;
+            });
+            if (savedBook == null) {
+                return imageQuotaExceeded();
+            }
+            searchIndex.index(BookSearchDocument.fromEntity(savedBook));
+            libraryCache.bookSaved(savedBook.getId(), userId);
+            libraryEventHub.publish(userId, LibraryEvent.ADDED, savedBook.getId());
+            return ResponseEntity.ok().eTag(ETags.book(savedBook.getVersion())).body(BookDto.fromEntity(savedBook));
         } catch (Exception e) {
             logger.error("Error in addBook", e);
             return ResponseEntity.status(500).body(new ApiResponse("Error adding book: " + e.getMessage()));
@@ -89,52 +167,160 @@ public class BookController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getUserBooks(@RequestHeader(value = "Authorization", required = false) String token) {
+    public ResponseEntity<?> getUserBooks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                          @RequestHeader(value = "Authorization", required = false) String token,
+                                          @RequestParam(value = "sort", required = false) String sort,
+                                          @RequestParam(value = "direction", required = false) String direction,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "limit", required = false) Integer limit,
+                                          @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             if (token == null || token.isEmpty()) {
                 return ResponseEntity.status(401).body(new ApiResponse("Missing Authorization header"));
             }
-
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
 
-            Long userId = jwtUtil.extractUserId(jwt);
-            List<Book> books = bookRepository.findByUserId(userId);
-            List<BookDto> dtos = books.stream().map(BookDto::fromEntity).toList();
-            return ResponseEntity.ok(dtos);
+            Long userId = principal.getUserId();
+            // Read before the page, so the tag is never newer than the data sent with it
+            long generation = libraryCache.generation(userId);
+            String etag = ETags.collection(generation);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(304).eTag(etag).build();
+            }
+            BookSort bookSort = BookSort.parse(sort);
+            Sort.Direction sortDirection = parseDirection(direction);
+            int size = pageSize(limit);
+            String query = bookSort + ":" + sortDirection + ":" + cursor + ":" + size + ":" + includeTotal;
+            BookPage page = readCoalescer.execute("list", userId + ":" + generation + ":" + query, () ->
+                    libraryCache.findBookPage(userId, query, () ->
+                            bookQueryService.listBooks(userId, bookSort, sortDirection, cursor, size, includeTotal)));
+            return pageResponse(page, etag);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
         } catch (Exception e) {
+            logger.error("Error in getUserBooks", e);
             return ResponseEntity.status(500).body(new ApiResponse("Error fetching books"));
         }
     }
 
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getBook(@AuthenticationPrincipal AuthenticatedUser principal,
+                                     @PathVariable Long id,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+
+            Long userId = principal.getUserId();
+            Long ownerId = libraryCache.findBookOwner(id);
+            if (ownerId == null) {
+                return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
+            }
+            if (!ownerId.equals(userId)) {
+                return ResponseEntity.status(403).body(new ApiResponse("Access denied"));
+            }
+
+            // An unchanged book costs one indexed version lookup
+            Optional<Long> version = bookRepository.findVersion(id);
+            if (version.isEmpty()) {
+                libraryCache.bookDeleted(id, userId);
+                return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
+            }
+            if (ETags.matches(ifNoneMatch, ETags.book(version.get()))) {
+                return ResponseEntity.status(304).eTag(ETags.book(version.get())).build();
+            }
+            Optional<Book> book = bookRepository.findById(id);
+            if (book.isEmpty()) {
+                libraryCache.bookDeleted(id, userId);
+                return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
+            }
+            return ResponseEntity.ok().eTag(ETags.book(book.get().getVersion())).body(BookDto.fromEntity(book.get()));
+        } catch (Exception e) {
+            logger.error("Error in getBook", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error fetching book"));
+        }
+    }
+
+    /**
+     * Books created, updated or deleted since the cursor of a previous call, oldest change
+     * first. Without since, every book is returned (the first sync of a device).
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@AuthenticationPrincipal AuthenticatedUser principal,
+                                        @RequestParam(value = "since", required = false) String since,
+                                        @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+            return ResponseEntity.ok(bookSyncService.changesSince(principal.getUserId(), since, pageSize(limit)));
+        } catch (BookSyncService.ExpiredCursorException e) {
+            return ResponseEntity.status(410).body(new ApiResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error in getChanges", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error fetching changes"));
+        }
+    }
+
+    /**
+     * Reading totals and top authors, read from the per-user running totals (never
+     * aggregated over the books table on request).
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(@AuthenticationPrincipal AuthenticatedUser principal) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+            Long userId = principal.getUserId();
+            return ResponseEntity.ok(libraryCache.findBookStats(userId, () -> bookStatsService.getStats(userId)));
+        } catch (Exception e) {
+            logger.error("Error in getStats", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error fetching stats"));
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateBook(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> updateBook(@AuthenticationPrincipal AuthenticatedUser principal,
                                       @PathVariable Long id,
                                       @RequestParam("title") String title,
                                       @RequestParam("author") String author,
                                       @RequestParam(value = "description", required = false) String description,
                                       @RequestParam(value = "image", required = false) MultipartFile image,
                                       @RequestParam(value = "pagesTotal", required = false) Integer pagesTotal,
-                                      @RequestParam(value = "pagesRead", required = false) Integer pagesRead) {
+                                      @RequestParam(value = "pagesRead", required = false) Integer pagesRead,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
     try {
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
 
-            Long userId = jwtUtil.extractUserId(jwt);
+            Long userId = principal.getUserId();
+            Long ownerId = libraryCache.findBookOwner(id);
+            if (ownerId == null) {
+                return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
+            }
+            if (!ownerId.equals(userId)) {
+                return ResponseEntity.status(403).body(new ApiResponse("Access denied"));
+            }
+
             Optional<Book> bookOpt = bookRepository.findById(id);
-            
             if (!bookOpt.isPresent()) {
+                libraryCache.bookDeleted(id, userId);
                 return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
             }
-
             Book book = bookOpt.get();
-            if (!book.getUser().getId().equals(userId)) {
-                return ResponseEntity.status(403).body(new ApiResponse("Access denied"));
+            if (ifMatch != null && !ETags.matches(ifMatch, ETags.book(book.getVersion()))) {
+                return modifiedConcurrently(book.getVersion());
             }
+            BookStatsService.Delta statsDelta = new BookStatsService.Delta()
+                    .remove(book.getAuthor(), book.getPagesRead(), book.getPagesTotal());
 
             book.setTitle(title);
             book.setAuthor(author);
@@ -145,49 +331,164 @@ public class BookController {
             int existingRead = book.getPagesRead() != null ? book.getPagesRead() : 0;
             int newTotal = pagesTotal != null ? pagesTotal : existingTotal;
             int newRead = pagesRead != null ? pagesRead : existingRead;
-            if (newTotal < 0 || newRead < 0) {
-                return ResponseEntity.badRequest().body(new ApiResponse("pagesTotal and pagesRead must be non-negative"));
-            }
-            if (newRead > newTotal) {
-                return ResponseEntity.badRequest().body(new ApiResponse("pagesRead cannot exceed pagesTotal"));
+            String pagesError = BookValidation.pagesError(newTotal, newRead);
+            if (pagesError != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse(pagesError));
             }
             book.setPagesTotal(newTotal);
             book.setPagesRead(newRead);
 
-            if (image != null && !image.isEmpty()) {
+            boolean uploaded = image != null && !image.isEmpty();
+            if (uploaded) {
+                if (exceedsImageQuota(userId, id, image.getSize())) {
+                    return imageQuotaExceeded();
+                }
                 String imagePath = saveImage(image);
                 book.setImagePath(imagePath);
+                book.setImageSize(image.getSize());
             }
 
-            Book updatedBook = bookRepository.save(book);
-            return ResponseEntity.ok(BookDto.fromEntity(updatedBook));
+            statsDelta.add(book.getAuthor(), book.getPagesRead(), book.getPagesTotal());
+            Book updatedBook = transactionTemplate.execute(status -> {
+                if (uploaded && exceedsImageQuotaLocked(userId, id, book.getImageSize())) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                Book saved = bookRepository.save(book);
+                bookStatsService.apply(userId, statsDelta);
+                return saved;
+            });
+            if (updatedBook == null) {
+                return imageQuotaExceeded();
+            }
+            searchIndex.index(BookSearchDocument.fromEntity(updatedBook));
+            libraryCache.bookSaved(id, userId);
+            libraryEventHub.publish(userId, LibraryEvent.UPDATED, id);
+            return ResponseEntity.ok().eTag(ETags.book(updatedBook.getVersion())).body(BookDto.fromEntity(updatedBook));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Changed between our read and the versioned UPDATE; nothing was written
+            return modifiedConcurrently(null);
         } catch (Exception e) {
             logger.error("Error in updateBook", e);
             return ResponseEntity.status(500).body(new ApiResponse("Error updating book"));
         }
     }
 
+    /**
+     * Sets pagesRead only, with a single conditional UPDATE (no entity load, no other columns).
+     */
+    @PatchMapping(value = "/{id}/progress", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateProgress(@AuthenticationPrincipal AuthenticatedUser principal,
+                                            @PathVariable Long id,
+                                            @RequestBody BookProgress progress) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+            String error = progressError(progress);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(new ApiResponse(error));
+            }
+
+            BookProgressService.Result result = bookProgressService.update(principal.getUserId(), id, progress.getPagesRead());
+            if (result == BookProgressService.Result.UPDATED) {
+                libraryEventHub.publish(principal.getUserId(), LibraryEvent.UPDATED, id);
+            }
+            return switch (result) {
+                case UPDATED -> ResponseEntity.noContent().build();
+                case NOT_FOUND -> ResponseEntity.status(404).body(new ApiResponse(BookProgressService.message(result)));
+                case FORBIDDEN -> ResponseEntity.status(403).body(new ApiResponse(BookProgressService.message(result)));
+                case EXCEEDS_TOTAL -> ResponseEntity.badRequest().body(new ApiResponse(BookProgressService.message(result)));
+            };
+        } catch (Exception e) {
+            logger.error("Error in updateProgress", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error updating progress"));
+        }
+    }
+
+    /**
+     * Applies many progress updates in one round trip, e.g. what an offline client queued.
+     * Returns how many were applied and why the others were not.
+     */
+    @PatchMapping(value = "/progress", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateProgressBatch(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                 @RequestBody List<BookProgress> updates) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+            if (updates == null || updates.isEmpty()) {
+                return ResponseEntity.badRequest().body(new ApiResponse("At least one update is required"));
+            }
+            if (updates.size() > maxProgressBatch) {
+                return ResponseEntity.badRequest().body(new ApiResponse("At most " + maxProgressBatch + " updates per request"));
+            }
+            for (BookProgress update : updates) {
+                String error = update == null || update.getId() == null ? "Every update needs an id" : progressError(update);
+                if (error != null) {
+                    return ResponseEntity.badRequest().body(new ApiResponse(error));
+                }
+            }
+            BookProgressService.BatchResult result = bookProgressService.updateAll(principal.getUserId(), updates);
+            if (result.getUpdated() > 0) {
+                libraryEventHub.publish(principal.getUserId(), LibraryEvent.CHANGED, null);
+            }
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            logger.error("Error in updateProgressBatch", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error updating progress"));
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteBook(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+    public ResponseEntity<?> deleteBook(@AuthenticationPrincipal AuthenticatedUser principal, @PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
 
-            Long userId = jwtUtil.extractUserId(jwt);
-            Optional<Book> bookOpt = bookRepository.findById(id);
-            
-            if (!bookOpt.isPresent()) {
+            Long userId = principal.getUserId();
+            Long ownerId = libraryCache.findBookOwner(id);
+            if (ownerId == null) {
                 return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
             }
-
-            Book book = bookOpt.get();
-            if (!book.getUser().getId().equals(userId)) {
+            if (!ownerId.equals(userId)) {
                 return ResponseEntity.status(403).body(new ApiResponse("Access denied"));
             }
 
-            bookRepository.delete(book);
+            Long expectedVersion = null;
+            if (ifMatch != null) {
+                Optional<Long> version = bookRepository.findVersion(id);
+                if (version.isPresent() && !ETags.matches(ifMatch, ETags.book(version.get()))) {
+                    return modifiedConcurrently(version.get());
+                }
+                expectedVersion = version.orElse(null);
+            }
+
+            Long checkedVersion = expectedVersion;
+            Integer deleted = transactionTemplate.execute(status -> {
+                BookStatsService.Delta statsDelta = bookStatsService.removal(id, userId);
+                int count = checkedVersion == null ? bookRepository.deleteOwned(id, userId)
+                        : bookRepository.deleteOwnedAtVersion(id, userId, checkedVersion);
+                if (count > 0) {
+                    bookSyncService.recordDeletion(userId, id);
+                    if (statsDelta != null) {
+                        bookStatsService.apply(userId, statsDelta);
+                    }
+                }
+                // The row is locked and still there, so only its version can have stopped the delete
+                return count == 0 && statsDelta != null ? -1 : count;
+            });
+            if (deleted < 0) {
+                return modifiedConcurrently(null);
+            }
+            searchIndex.remove(userId, id);
+            libraryCache.bookDeleted(id, userId);
+            if (deleted == 0) {
+                return ResponseEntity.status(404).body(new ApiResponse("Book not found"));
+            }
+            libraryEventHub.publish(userId, LibraryEvent.DELETED, id);
             return ResponseEntity.ok(new ApiResponse("Book deleted successfully"));
         } catch (Exception e) {
             logger.error("Error in deleteBook", e);
@@ -196,42 +497,240 @@ public class BookController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<?> searchBooks(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> searchBooks(@AuthenticationPrincipal AuthenticatedUser principal,
                                        @RequestParam(required = false) String title,
-                                       @RequestParam(required = false) String author) {
+                                       @RequestParam(required = false) String author,
+                                       @RequestParam(value = "q", required = false) String query,
+                                       @RequestParam(value = "sort", required = false) String sort,
+                                       @RequestParam(value = "direction", required = false) String direction,
+                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                       @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
 
-            List<Book> books;
-            if (title != null && !title.isEmpty()) {
-                books = bookRepository.findByTitleContainingIgnoreCase(title);
-            } else if (author != null && !author.isEmpty()) {
-                books = bookRepository.findByAuthorContainingIgnoreCase(author);
+            Long userId = principal.getUserId();
+            long generation = libraryCache.generation(userId);
+            BookSort bookSort = BookSort.parse(sort);
+            Sort.Direction sortDirection = parseDirection(direction);
+            int size = pageSize(limit);
+            // Matching ignores case, so terms differing only in case share one search
+            String key = userId + ":" + generation + ":" + searchTerm(title) + ":" + searchTerm(author) + ":"
+                    + searchTerm(query) + ":" + bookSort + ":" + sortDirection + ":" + cursor + ":" + size + ":" + includeTotal;
+            BookPage page = readCoalescer.execute("search", key, () -> {
+                if (isBlank(title) && isBlank(author) && isBlank(query)) {
+                    return bookQueryService.listBooks(userId, bookSort, sortDirection, cursor, size, includeTotal);
+                }
+                return bookQueryService.searchBooks(userId, title, author, query, bookSort, sortDirection,
+                        cursor, size, includeTotal);
+            });
+            return pageResponse(page, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error in searchBooks", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error searching books"));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                           @RequestParam(value = "format", required = false) String format,
+                                                           @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        if (principal == null) {
+            return streamedError(401, "Invalid token");
+        }
+        BookExportService.Format exportFormat;
+        try {
+            exportFormat = BookExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return streamedError(400, e.getMessage());
+        }
+
+        Long userId = principal.getUserId();
+        String fileName = "books." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : out;
+            try {
+                long count = bookExportService.export(userId, exportFormat, target);
+                logger.debug("Exported {} books for user {}", count, userId);
+            } catch (Exception e) {
+                // Headers are already sent, so the only way to signal failure is to abort the stream
+                logger.error("Error in exportBooks", e);
+                throw e;
+            } finally {
+                if (gzip) {
+                    ((GZIPOutputStream) target).finish();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Imports books from the raw request body (CSV with a header row, or NDJSON in the
+     * export format), optionally gzip-encoded. Pass an importId to poll progress from
+     * another request while the upload is running.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importBooks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                       @RequestParam(value = "format", required = false) String format,
+                                       @RequestParam(value = "importId", required = false) String importId,
+                                       HttpServletRequest request) {
+        try {
+            if (principal == null) {
+                return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+            }
+            Long userId = principal.getUserId();
+            if (!userRepository.existsById(userId)) {
+                return ResponseEntity.status(404).body(new ApiResponse("User not found"));
+            }
+
+            BookExportService.Format importFormat;
+            if (format != null && !format.isBlank()) {
+                importFormat = BookExportService.Format.parse(format);
             } else {
-                books = bookRepository.findAll();
+                String contentType = request.getContentType();
+                importFormat = contentType != null && contentType.toLowerCase().startsWith("text/csv")
+                        ? BookExportService.Format.CSV : BookExportService.Format.NDJSON;
+            }
+
+            String id = importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString();
+            BookImportProgress progress = bookImportService.start(userId, id);
+            if (progress == null) {
+                return ResponseEntity.status(409).body(new ApiResponse("Import " + id + " is already running"));
+            }
+
+            InputStream body = request.getInputStream();
+            if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+                body = new GZIPInputStream(body, 64 * 1024);
             }
-            // Return DTOs for consistency and to avoid lazy-loading issues
-            List<BookDto> dtos = books.stream().map(BookDto::fromEntity).toList();
-            return ResponseEntity.ok(dtos);
+            bookImportService.importBooks(userId, importFormat, body, progress);
+            if (progress.getImported() > 0) {
+                libraryEventHub.publish(userId, LibraryEvent.CHANGED, null);
+            }
+            int status = progress.getStatus() == BookImportProgress.Status.FAILED ? 422 : 200;
+            return ResponseEntity.status(status).body(progress);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(new ApiResponse("Error searching books"));
+            logger.error("Error in importBooks", e);
+            return ResponseEntity.status(500).body(new ApiResponse("Error importing books"));
         }
     }
 
-    private String saveImage(MultipartFile image) throws IOException {
-        String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-        Path uploadPath = Paths.get(uploadDir);
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<?> getImportProgress(@AuthenticationPrincipal AuthenticatedUser principal,
+                                             @PathVariable String importId) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+        }
+        BookImportProgress progress = bookImportService.getProgress(principal.getUserId(), importId);
+        if (progress == null) {
+            return ResponseEntity.status(404).body(new ApiResponse("Import not found"));
+        }
+        return ResponseEntity.ok(progress);
+    }
+
+    // 412 for a failed If-Match or a write that lost a race; carries the current tag when known
+    private ResponseEntity<?> modifiedConcurrently(Long currentVersion) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(412);
+        if (currentVersion != null) {
+            response.eTag(ETags.book(currentVersion));
+        }
+        return response.body(new ApiResponse("Book was modified by another request; reload it and retry"));
+    }
+
+    // Streaming endpoints must declare StreamingResponseBody, so their errors are written the same way
+    private ResponseEntity<StreamingResponseBody> streamedError(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, new ApiResponse(message)));
+    }
+
+    // The body stays a plain JSON array; paging metadata travels in headers
+    private ResponseEntity<byte[]> pageResponse(BookPage page, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        if (page.getNextCursor() != null) {
+            headers.add("X-Next-Cursor", page.getNextCursor());
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build().toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        if (page.getTotal() != null) {
+            headers.add("X-Total-Count", String.valueOf(page.getTotal()));
+        }
+        return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_JSON)
+                .body(bookJsonWriter.toJson(page.getItems()));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static Sort.Direction parseDirection(String direction) {
+        return direction == null || direction.isBlank() ? null : Sort.Direction.fromString(direction);
+    }
+
+    private static String progressError(BookProgress progress) {
+        if (progress == null || progress.getPagesRead() == null) {
+            return "pagesRead is required";
+        }
+        if (progress.getPagesRead() < 0) {
+            return "pagesRead must be non-negative";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String searchTerm(String value) {
+        return isBlank(value) ? "" : value.toLowerCase(Locale.ROOT);
+    }
 
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    // Checked before storing the upload, to turn away most oversized ones without writing them
+    private boolean exceedsImageQuota(Long userId, Long replacedBookId, long imageSize) {
+        long quota = imageQuota.toBytes();
+        return quota > 0 && bookRepository.sumImageSize(userId, replacedBookId) + imageSize > quota;
+    }
+
+    /**
+     * Checked again in the saving transaction, under the user's row lock, so concurrent uploads
+     * of one user are counted one after another and cannot overshoot the quota together. A
+     * rejected upload's file is left unreferenced for the image collector.
+     */
+    private boolean exceedsImageQuotaLocked(Long userId, Long replacedBookId, long imageSize) {
+        if (imageQuota.toBytes() <= 0) {
+            return false;
         }
+        userRepository.lockById(userId);
+        return exceedsImageQuota(userId, replacedBookId, imageSize);
+    }
 
-        Path filePath = uploadPath.resolve(fileName);
-        Files.copy(image.getInputStream(), filePath);
+    private ResponseEntity<ApiResponse> imageQuotaExceeded() {
+        String quota = imageQuota.toMegabytes() > 0 ? imageQuota.toMegabytes() + " MB" : imageQuota.toKilobytes() + " KB";
+        return ResponseEntity.status(413).body(new ApiResponse("Image storage quota of " + quota
+                + " exceeded; remove images or books first"));
+    }
 
-        return fileName;
+    private String saveImage(MultipartFile image) throws IOException {
+        return imageStorageService.store(image);
     }
 }
\ No newline at end of file
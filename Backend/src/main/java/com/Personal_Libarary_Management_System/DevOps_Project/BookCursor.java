@@ -0,0 +1,57 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor: the sort key and id of the last row of the previous page,
+ * base64url-encoded as "key|value|id".
+ */
+public class BookCursor {
+    private final String key;
+    private final String value;
+    private final Long id;
+
+    public BookCursor(String key, Object value, Long id) {
+        this.key = key;
+        this.value = value != null ? value.toString() : "";
+        this.id = id;
+    }
+
+    public String getKey() { return key; }
+    public String getValue() { return value; }
+    public Long getId() { return id; }
+
+    public LocalDateTime getValueAsDateTime() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    public float getValueAsFloat() {
+        return Float.parseFloat(value);
+    }
+
+    public String encode() {
+        String raw = key + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Throws IllegalArgumentException when the cursor is malformed.
+     */
+    public static BookCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int first = raw.indexOf('|');
+        int last = raw.lastIndexOf('|');
+        if (first < 0 || last == first) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new BookCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                Long.valueOf(raw.substring(last + 1)));
+    }
+}
@@ -1,8 +1,14 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
+import org.springframework.web.util.UriUtils;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-public class BookDto {
+public class BookDto implements Serializable {
     private Long id;
     private String title;
     private String author;
@@ -12,6 +18,8 @@ public class BookDto {
     private LocalDateTime updatedAt;
     private Integer pagesTotal;
     private Integer pagesRead;
+    private long version;
+    private Map<String, String> thumbnailUrls;
 
     public BookDto() {}
 
@@ -30,7 +38,7 @@ public class BookDto {
     }
 
     public static BookDto fromEntity(Book b) {
-        return new BookDto(
+        BookDto dto = new BookDto(
             b.getId(),
             b.getTitle(),
             b.getAuthor(),
@@ -41,6 +49,22 @@ public class BookDto {
             b.getPagesTotal(),
             b.getPagesRead()
         );
+        dto.setVersion(b.getVersion());
+        dto.setThumbnailUrls(thumbnailUrls(b.getImagePath()));
+        return dto;
+    }
+
+    // Keyed by box size; the thumbnail route falls back to the original until the thumbnail exists
+    static Map<String, String> thumbnailUrls(String imagePath) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return null;
+        }
+        String encoded = UriUtils.encodePathSegment(imagePath, StandardCharsets.UTF_8);
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (int size : ImageStorageService.THUMBNAIL_SIZES) {
+            urls.put(String.valueOf(size), "/api/images/thumbs/" + size + "/" + encoded);
+        }
+        return urls;
     }
 
     public Long getId() { return id; }
@@ -61,4 +85,8 @@ public class BookDto {
     public void setPagesTotal(Integer pagesTotal) { this.pagesTotal = pagesTotal; }
     public Integer getPagesRead() { return pagesRead; }
     public void setPagesRead(Integer pagesRead) { this.pagesRead = pagesRead; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public Map<String, String> getThumbnailUrls() { return thumbnailUrls; }
+    public void setThumbnailUrls(Map<String, String> thumbnailUrls) { this.thumbnailUrls = thumbnailUrls; }
 }
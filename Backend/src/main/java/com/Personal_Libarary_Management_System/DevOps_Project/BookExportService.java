@@ -0,0 +1,153 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole library to a stream while reading it from a database cursor.
+ * Each entity is detached as soon as it has been written, so memory stays constant
+ * regardless of library size.
+ */
+@Service
+public class BookExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    // Flush regularly so the first rows reach the client before the export completes
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String CSV_HEADER =
+            "id,title,author,description,imagePath,createdAt,updatedAt,pagesTotal,pagesRead";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Returns the number of books written. The caller owns (and closes) the stream.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamByUserId(userId)) {
+            return format == Format.CSV ? writeCsv(books.iterator(), out) : writeNdjson(books.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<Book> books, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows are separated by our own newlines, not Jackson's default space
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        while (books.hasNext()) {
+            Book book = books.next();
+            writer.writeValue(generator, BookDto.fromEntity(book));
+            generator.writeRaw('\n');
+            entityManager.detach(book);
+            if (++count == 1 || count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<Book> books, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        while (books.hasNext()) {
+            Book book = books.next();
+            BookDto dto = BookDto.fromEntity(book);
+            writer.write(String.valueOf(dto.getId()));
+            writer.write(',');
+            writeCsvField(writer, dto.getTitle());
+            writer.write(',');
+            writeCsvField(writer, dto.getAuthor());
+            writer.write(',');
+            writeCsvField(writer, dto.getDescription());
+            writer.write(',');
+            writeCsvField(writer, dto.getImagePath());
+            writer.write(',');
+            writeCsvField(writer, dto.getCreatedAt() != null ? dto.getCreatedAt().toString() : null);
+            writer.write(',');
+            writeCsvField(writer, dto.getUpdatedAt() != null ? dto.getUpdatedAt().toString() : null);
+            writer.write(',');
+            writer.write(dto.getPagesTotal() != null ? dto.getPagesTotal().toString() : "");
+            writer.write(',');
+            writer.write(dto.getPagesRead() != null ? dto.getPagesRead().toString() : "");
+            writer.write('\n');
+            entityManager.detach(book);
+            if (++count == 1 || count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,55 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Book ids used to come from AUTO_INCREMENT. On MySQL the pooled books_seq generator is
+ * a one-row table, so before the first insert we make sure its next block starts above
+ * every existing id (and that the row exists at all).
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class BookIdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookIdSequenceAligner.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void align() {
+        try {
+            String product;
+            try (Connection connection = dataSource.getConnection()) {
+                product = connection.getMetaData().getDatabaseProductName();
+            }
+            if (!"MySQL".equalsIgnoreCase(product)) {
+                return;
+            }
+
+            // Hibernate's pooled optimizer hands out (next_val - allocationSize, next_val]
+            long floor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM books", Long.class)
+                    + Book.ID_ALLOCATION_SIZE;
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books_seq", Integer.class);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO books_seq (next_val) VALUES (?)", floor);
+            } else {
+                jdbcTemplate.update("UPDATE books_seq SET next_val = GREATEST(next_val, ?)", floor);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not align books_seq with existing book ids", e);
+        }
+    }
+}
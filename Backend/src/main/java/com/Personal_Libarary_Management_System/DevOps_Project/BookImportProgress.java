@@ -0,0 +1,87 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of one bulk import, readable while the import is still running.
+ */
+public class BookImportProgress {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+
+    private final String importId;
+    private final Instant startedAt = Instant.now();
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile long processed;
+    private volatile long imported;
+    private volatile long failed;
+    private volatile boolean errorsTruncated;
+    private volatile String message;
+    private volatile Instant finishedAt;
+
+    public BookImportProgress(String importId, int maxErrors) {
+        this.importId = importId;
+        this.maxErrors = maxErrors;
+    }
+
+    void rowProcessed() {
+        processed++;
+    }
+
+    void rowsImported(int count) {
+        imported += count;
+    }
+
+    synchronized void rowFailed(long line, String error) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, error));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    void finish(Status finalStatus, String finalMessage) {
+        message = finalMessage;
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    public String getImportId() { return importId; }
+    public Status getStatus() { return status; }
+    public long getProcessed() { return processed; }
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public String getMessage() { return message; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+
+    public synchronized List<RowError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    public long getRowsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, end.toEpochMilli() - startedAt.toEpochMilli());
+        return processed * 1000 / millis;
+    }
+}
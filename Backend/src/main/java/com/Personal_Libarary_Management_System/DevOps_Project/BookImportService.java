@@ -0,0 +1,229 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulk import of books from a CSV or NDJSON stream. Rows are parsed and validated one
+ * at a time and written in batches, each batch in its own transaction, so neither
+ * the input nor the persistence context is ever held in memory as a whole.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    // Finished imports stay queryable for this long
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LibraryCache libraryCache;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${books.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${books.import.max-errors:1000}")
+    private int maxErrors;
+
+    private final Map<String, BookImportProgress> imports = new ConcurrentHashMap<>();
+
+    public BookImportProgress getProgress(Long userId, String importId) {
+        return imports.get(key(userId, importId));
+    }
+
+    /**
+     * Returns null when an import with the same id is still running for the user.
+     */
+    public BookImportProgress start(Long userId, String importId) {
+        Instant cutoff = Instant.now().minus(RETENTION);
+        imports.values().removeIf(p -> p.getFinishedAt() != null && p.getFinishedAt().isBefore(cutoff));
+
+        BookImportProgress progress = new BookImportProgress(importId, maxErrors);
+        // One atomic step, so two requests with the same id cannot both replace a finished import
+        BookImportProgress current = imports.compute(key(userId, importId), (key, existing) ->
+                existing != null && existing.getStatus() == BookImportProgress.Status.RUNNING ? existing : progress);
+        return current == progress ? progress : null;
+    }
+
+    public void importBooks(Long userId, BookExportService.Format format, InputStream in, BookImportProgress progress) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        List<Book> batch = new ArrayList<>(batchSize);
+        try {
+            if (format == BookExportService.Format.CSV) {
+                readCsv(userId, reader, batch, progress);
+            } else {
+                readNdjson(userId, reader, batch, progress);
+            }
+            flush(userId, batch, progress);
+            progress.finish(BookImportProgress.Status.COMPLETED, null);
+            logger.info("Import {} for user {}: {} imported, {} rejected, {} rows/s", progress.getImportId(), userId,
+                    progress.getImported(), progress.getFailed(), progress.getRowsPerSecond());
+        } catch (Exception e) {
+            logger.error("Import {} for user {} aborted after {} rows", progress.getImportId(), userId,
+                    progress.getProcessed(), e);
+            progress.finish(BookImportProgress.Status.FAILED, "Import aborted: " + e.getMessage());
+        }
+    }
+
+    private void readNdjson(Long userId, BufferedReader reader, List<Book> batch, BookImportProgress progress)
+            throws IOException {
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.rowProcessed();
+            BookDto dto;
+            try {
+                dto = objectMapper.readValue(line, BookDto.class);
+            } catch (IOException e) {
+                progress.rowFailed(row, "Invalid JSON");
+                continue;
+            }
+            add(userId, row, dto.getTitle(), dto.getAuthor(), dto.getDescription(),
+                    dto.getPagesTotal(), dto.getPagesRead(), batch, progress);
+        }
+    }
+
+    private void readCsv(Long userId, BufferedReader reader, List<Book> batch, BookImportProgress progress)
+            throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("author")) {
+            throw new IllegalArgumentException("CSV header must contain title and author columns");
+        }
+
+        while (true) {
+            long row = csv.getLine();
+            List<String> fields = csv.next();
+            if (fields == null) {
+                break;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            progress.rowProcessed();
+            Integer pagesTotal;
+            Integer pagesRead;
+            try {
+                pagesTotal = parseInt(column(fields, columns, "pagestotal"));
+                pagesRead = parseInt(column(fields, columns, "pagesread"));
+            } catch (NumberFormatException e) {
+                progress.rowFailed(row, "pagesTotal and pagesRead must be numbers");
+                continue;
+            }
+            add(userId, row, column(fields, columns, "title"), column(fields, columns, "author"),
+                    column(fields, columns, "description"), pagesTotal, pagesRead, batch, progress);
+        }
+    }
+
+    private void add(Long userId, long row, String title, String author, String description,
+                     Integer pagesTotal, Integer pagesRead, List<Book> batch, BookImportProgress progress) {
+        int total = pagesTotal != null ? pagesTotal : 0;
+        int read = pagesRead != null ? pagesRead : 0;
+        String error = BookValidation.fieldsError(title, author, description);
+        if (error == null) {
+            error = BookValidation.pagesError(total, read);
+        }
+        if (error != null) {
+            progress.rowFailed(row, error);
+            return;
+        }
+
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setDescription(description != null && !description.isEmpty() ? description : null);
+        book.setPagesTotal(total);
+        book.setPagesRead(read);
+        batch.add(book);
+        if (batch.size() >= batchSize) {
+            flush(userId, batch, progress);
+        }
+    }
+
+    private void flush(Long userId, List<Book> batch, BookImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // A reference is enough for the foreign key; the owner row is never loaded
+            User owner = entityManager.getReference(User.class, userId);
+            BookStatsService.Delta statsDelta = new BookStatsService.Delta();
+            for (Book book : batch) {
+                book.setUser(owner);
+                entityManager.persist(book);
+                statsDelta.add(book.getAuthor(), book.getPagesRead(), book.getPagesTotal());
+            }
+            entityManager.flush();
+            entityManager.clear();
+            bookStatsService.apply(userId, statsDelta);
+        });
+        for (Book book : batch) {
+            searchIndex.index(new BookSearchDocument(book.getId(), userId, book.getTitle(), book.getAuthor(),
+                    book.getDescription()));
+        }
+        libraryCache.booksChanged(userId);
+        progress.rowsImported(batch.size());
+        logger.debug("Import {}: {} rows processed", progress.getImportId(), progress.getProcessed());
+        batch.clear();
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static Integer parseInt(String value) {
+        return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+
+    private static String key(Long userId, String importId) {
+        return userId + ":" + importId;
+    }
+}
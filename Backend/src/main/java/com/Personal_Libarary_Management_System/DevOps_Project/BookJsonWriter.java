@@ -0,0 +1,101 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * JSON of book lists, assembled from each book's cached serialized form instead of
+ * running Jackson over every field (dates included) on every response.
+ *
+ * A fragment is kept per book id together with the version it was written from. Every
+ * write to a book moves its version, and a DTO is derived from the row alone, so a
+ * fragment whose version matches is exactly what Jackson would produce again.
+ */
+@Component
+public class BookJsonWriter {
+
+    private static final class Fragment {
+        private final long version;
+        private final byte[] json;
+
+        private Fragment(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${books.json.cache.max-size:64MB}")
+    private DataSize maxSize;
+
+    private Cache<Long, Fragment> fragments;
+
+    @PostConstruct
+    void init() {
+        fragments = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, Fragment fragment) -> fragment.json.length + 64)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, fragments, "bookJson");
+    }
+
+    /**
+     * Returns the books as a JSON array, the same bytes Jackson would write for the list.
+     */
+    public byte[] toJson(List<BookDto> books) {
+        byte[][] parts = new byte[books.size()][];
+        int length = 2 + Math.max(0, books.size() - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = fragment(books.get(i));
+            length += parts[i].length;
+        }
+        // Sized exactly, so the array is filled in place and never regrown
+        byte[] json = new byte[length];
+        json[0] = '[';
+        int position = 1;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                json[position++] = ',';
+            }
+            System.arraycopy(parts[i], 0, json, position, parts[i].length);
+            position += parts[i].length;
+        }
+        json[position] = ']';
+        return json;
+    }
+
+    private byte[] fragment(BookDto book) {
+        Fragment cached = book.getId() != null ? fragments.getIfPresent(book.getId()) : null;
+        if (cached != null && cached.version == book.getVersion()) {
+            return cached.json;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(book);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (book.getId() != null) {
+            fragments.put(book.getId(), new Fragment(book.getVersion(), json));
+        }
+        return json;
+    }
+}
@@ -0,0 +1,24 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of books plus the cursor for the next page (null on the last page) and,
+ * when requested, the total number of matching books.
+ */
+public class BookPage implements Serializable {
+    private final List<BookDto> items;
+    private final String nextCursor;
+    private final Long total;
+
+    public BookPage(List<BookDto> items, String nextCursor, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<BookDto> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public Long getTotal() { return total; }
+}
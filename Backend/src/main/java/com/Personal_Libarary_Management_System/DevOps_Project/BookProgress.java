@@ -0,0 +1,21 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * One reading-progress update. The id is taken from the path for single updates.
+ */
+public class BookProgress {
+    private Long id;
+    private Integer pagesRead;
+
+    public BookProgress() {}
+
+    public BookProgress(Long id, Integer pagesRead) {
+        this.id = id;
+        this.pagesRead = pagesRead;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Integer getPagesRead() { return pagesRead; }
+    public void setPagesRead(Integer pagesRead) { this.pagesRead = pagesRead; }
+}
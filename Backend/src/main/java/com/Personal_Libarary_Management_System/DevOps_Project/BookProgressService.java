@@ -0,0 +1,143 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reading-progress writes. Each update is a conditional UPDATE that checks ownership and
+ * the page bound in the database, so the book is never read or loaded first. The UPDATE
+ * also keeps the value it replaced in pages_read_prev, from which the owner's stats row
+ * is moved by one more UPDATE in the same transaction. Only when a row is not updated is
+ * the reason looked up.
+ */
+@Service
+public class BookProgressService {
+
+    public enum Result { UPDATED, NOT_FOUND, FORBIDDEN, EXCEEDS_TOTAL }
+
+    public static class Failure {
+        private final Long id;
+        private final String message;
+
+        public Failure(Long id, String message) {
+            this.id = id;
+            this.message = message;
+        }
+
+        public Long getId() { return id; }
+        public String getMessage() { return message; }
+    }
+
+    public static class BatchResult {
+        private final int updated;
+        private final List<Failure> failed;
+
+        public BatchResult(int updated, List<Failure> failed) {
+            this.updated = updated;
+            this.failed = failed;
+        }
+
+        public int getUpdated() { return updated; }
+        public List<Failure> getFailed() { return failed; }
+    }
+
+    // updated_at and version move too, keeping the "recently updated" order and ETags correct.
+    // The right-hand side of pages_read_prev sees the old pages_read on MySQL (SETs run left
+    // to right) and on H2 (SETs all see the old row).
+    private static final String UPDATE_SQL = "UPDATE books SET pages_read_prev = pages_read, pages_read = ?, "
+            + "updated_at = ?, version = version + 1 WHERE id = ? AND user_id = ? AND ? <= pages_total";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookStatsService bookStatsService;
+
+    @Autowired
+    private LibraryCache libraryCache;
+
+    public Result update(Long userId, Long bookId, int pagesRead) {
+        BatchResult result = updateAll(userId, List.of(new BookProgress(bookId, pagesRead)));
+        if (result.getUpdated() > 0) {
+            return Result.UPDATED;
+        }
+        return explain(userId, bookId);
+    }
+
+    /**
+     * Applies a batch in one transaction: one JDBC batch of conditional updates (a single
+     * round trip on MySQL), then one stats update computed from the rows that matched.
+     * Repeated ids are coalesced, keeping the last value. Updates must already be
+     * validated (non-null id, non-negative pagesRead).
+     */
+    public BatchResult updateAll(Long userId, List<BookProgress> updates) {
+        Map<Long, Integer> latest = new LinkedHashMap<>();
+        for (BookProgress update : updates) {
+            latest.put(update.getId(), update.getPagesRead());
+        }
+
+        List<Long> ids = new ArrayList<>(latest.keySet());
+        List<Long> notUpdated = new ArrayList<>();
+        Integer updated = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int pagesRead = latest.get(id);
+                rows.add(new Object[]{pagesRead, now, id, userId, pagesRead});
+            }
+            int[] counts = ids.size() == 1
+                    ? new int[]{jdbcTemplate.update(UPDATE_SQL, rows.get(0))}
+                    : jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+
+            List<Long> changed = new ArrayList<>(ids.size());
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    changed.add(ids.get(i));
+                } else {
+                    notUpdated.add(ids.get(i));
+                }
+            }
+            bookStatsService.applyProgress(userId, changed);
+            return changed.size();
+        });
+
+        // After commit, so no reader caches the old values under the new generation
+        if (updated > 0) {
+            libraryCache.booksChanged(userId);
+        }
+        List<Failure> failed = new ArrayList<>(notUpdated.size());
+        for (Long id : notUpdated) {
+            failed.add(new Failure(id, message(explain(userId, id))));
+        }
+        return new BatchResult(updated, failed);
+    }
+
+    static String message(Result result) {
+        return switch (result) {
+            case NOT_FOUND -> "Book not found";
+            case FORBIDDEN -> "Access denied";
+            case EXCEEDS_TOTAL -> "pagesRead cannot exceed pagesTotal";
+            case UPDATED -> null;
+        };
+    }
+
+    private Result explain(Long userId, Long bookId) {
+        Long ownerId = libraryCache.findBookOwner(bookId);
+        if (ownerId == null) {
+            return Result.NOT_FOUND;
+        }
+        return ownerId.equals(userId) ? Result.EXCEEDS_TOTAL : Result.FORBIDDEN;
+    }
+}
@@ -0,0 +1,167 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.persistence.criteria.Expression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated reads of a user's books. Each page costs one indexed range scan of
+ * at most limit + 1 rows, independent of the size of the library.
+ */
+@Service
+public class BookQueryService {
+
+    static final String SEARCH_CURSOR_KEY = "score";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Transactional(readOnly = true)
+    public BookPage listBooks(Long userId, BookSort sort, Sort.Direction direction, String cursor,
+                              int limit, boolean includeTotal) {
+        return scroll(ownedBy(userId), sort, direction, cursor, limit, includeTotal);
+    }
+
+    /**
+     * Ranked search through the in-memory index, or user-scoped LIKE filtering (in the
+     * requested sort order) while the index is still being built.
+     */
+    @Transactional(readOnly = true)
+    public BookPage searchBooks(Long userId, String title, String author, String query,
+                                BookSort sort, Sort.Direction direction, String cursor,
+                                int limit, boolean includeTotal) {
+        if (!searchIndex.isReady()) {
+            // Free text is treated as a title match until the index is available
+            String titleTerm = hasText(title) ? title : query;
+            Specification<Book> spec = ownedBy(userId)
+                    .and(containsIgnoreCase("title", titleTerm))
+                    .and(containsIgnoreCase("author", author));
+            return scroll(spec, sort, direction, cursor, limit, includeTotal);
+        }
+
+        Float afterScore = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            BookCursor after = decode(cursor, SEARCH_CURSOR_KEY);
+            afterScore = after.getValueAsFloat();
+            afterId = after.getId();
+        }
+        BookSearchIndex.Hits hits = searchIndex.search(userId, title, author, query, afterScore, afterId, limit);
+        List<BookDto> items = findAllInOrder(hits.getIds());
+
+        String nextCursor = null;
+        if (hits.hasMore()) {
+            int last = hits.getIds().size() - 1;
+            nextCursor = new BookCursor(SEARCH_CURSOR_KEY, hits.getScores().get(last), hits.getIds().get(last)).encode();
+        }
+        return new BookPage(items, nextCursor, includeTotal ? (long) hits.getTotal() : null);
+    }
+
+    private BookPage scroll(Specification<Book> spec, BookSort sort, Sort.Direction direction, String cursor,
+                            int limit, boolean includeTotal) {
+        Sort order = sort.toSort(direction);
+        Specification<Book> page = spec;
+        if (cursor != null && !cursor.isBlank()) {
+            BookCursor after = decode(cursor, sort.getProperty());
+            page = spec.and(after(sort.getProperty(), cursorValue(sort, after), after.getId(),
+                    order.getOrderFor(sort.getProperty()).isAscending()));
+        }
+
+        // Fetch one extra row to learn whether there is a next page without counting
+        List<Book> rows = bookRepository.findBy(page, q -> q.sortBy(order).limit(limit + 1).all());
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<BookDto> items = new ArrayList<>(rows.size());
+        for (Book book : rows) {
+            items.add(BookDto.fromEntity(book));
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            Book last = rows.get(rows.size() - 1);
+            nextCursor = new BookCursor(sort.getProperty(), sort.valueOf(last), last.getId()).encode();
+        }
+        Long total = includeTotal ? bookRepository.count(spec) : null;
+        return new BookPage(items, nextCursor, total);
+    }
+
+    // (property, id) strictly after the cursor row in the given direction
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<Book> after(String property, Object value, Long id, boolean ascending) {
+        return (root, query, cb) -> {
+            Expression<Comparable> key = root.get(property);
+            Comparable keyValue = (Comparable) value;
+            if (ascending) {
+                return cb.or(cb.greaterThan(key, keyValue),
+                        cb.and(cb.equal(key, keyValue), cb.greaterThan(root.get("id"), id)));
+            }
+            return cb.or(cb.lessThan(key, keyValue),
+                    cb.and(cb.equal(key, keyValue), cb.lessThan(root.get("id"), id)));
+        };
+    }
+
+    private List<BookDto> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            byId.put(book.getId(), book);
+        }
+        List<BookDto> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                ordered.add(BookDto.fromEntity(book));
+            }
+        }
+        return ordered;
+    }
+
+    private static BookCursor decode(String cursor, String expectedKey) {
+        BookCursor decoded = BookCursor.decode(cursor);
+        if (!decoded.getKey().equals(expectedKey)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return decoded;
+    }
+
+    private static Object cursorValue(BookSort sort, BookCursor cursor) {
+        switch (sort) {
+            case UPDATED:
+            case CREATED:
+                return cursor.getValueAsDateTime();
+            default:
+                return cursor.getValue();
+        }
+    }
+
+    private static Specification<Book> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    private static Specification<Book> containsIgnoreCase(String property, String value) {
+        if (!hasText(value)) {
+            return null;
+        }
+        String pattern = "%" + value.toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(property)), pattern);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,12 +1,77 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     List<Book> findByUserId(Long userId);
-    List<Book> findByTitleContainingIgnoreCase(String title);
-    List<Book> findByAuthorContainingIgnoreCase(String author);
-}
\ No newline at end of file
+
+    // Image bytes charged to the user, leaving out one book (the one being edited) if given
+    @Query("select coalesce(sum(b.imageSize), 0) from Book b where b.user.id = :userId "
+            + "and (:excludedId is null or b.id <> :excludedId)")
+    long sumImageSize(@Param("userId") Long userId, @Param("excludedId") Long excludedId);
+
+    // Reads the foreign key only, without joining or loading the owner
+    @Query("select b.user.id from Book b where b.id = :id")
+    Optional<Long> findOwnerId(@Param("id") Long id);
+
+    // Single statement delete; returns 0 when the book is gone or owned by someone else
+    @Modifying
+    @Transactional
+    @Query("delete from Book b where b.id = :id and b.user.id = :userId")
+    int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Current version (the book's ETag) without loading the row into an entity
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersion(@Param("id") Long id);
+
+    // Same as deleteOwned, but only while the book is still at the version the client last saw (If-Match)
+    @Modifying
+    @Transactional
+    @Query("delete from Book b where b.id = :id and b.user.id = :userId and b.version = :version")
+    int deleteOwnedAtVersion(@Param("id") Long id, @Param("userId") Long userId, @Param("version") long version);
+
+    // Changes feed: rows after (updatedAt, id) up to settledTime in that order, one range scan of idx_books_user_updated
+    @Query("select b from Book b where b.user.id = :userId and (b.updatedAt > :afterTime " +
+           "or (b.updatedAt = :afterTime and b.id > :afterId)) and b.updatedAt <= :settledTime " +
+           "order by b.updatedAt, b.id")
+    List<Book> findChangedAfter(@Param("userId") Long userId, @Param("afterTime") LocalDateTime afterTime,
+                                @Param("afterId") Long afterId, @Param("settledTime") LocalDateTime settledTime,
+                                Pageable pageable);
+
+    // Read-only cursor over a user's books for exports; MySQL needs useCursorFetch=true to honour the fetch size
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b where b.user.id = :userId order by b.id")
+    Stream<Book> streamByUserId(@Param("userId") Long userId);
+
+    // Keyset scan used to (re)build the search index without loading entities
+    @Query("select new com.Personal_Libarary_Management_System.DevOps_Project.BookSearchDocument(b.id, b.user.id, b.title, b.author, b.description) " +
+           "from Book b where b.id > :afterId order by b.id")
+    List<BookSearchDocument> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Search fields of books written on another instance
+    @Query("select new com.Personal_Libarary_Management_System.DevOps_Project.BookSearchDocument(b.id, b.user.id, b.title, b.author, b.description) " +
+           "from Book b where b.id = :id")
+    Optional<BookSearchDocument> findSearchDocument(@Param("id") Long id);
+
+    @Query("select new com.Personal_Libarary_Management_System.DevOps_Project.BookSearchDocument(b.id, b.user.id, b.title, b.author, b.description) " +
+           "from Book b where b.user.id = :userId")
+    List<BookSearchDocument> findSearchDocumentsByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,31 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * The searchable columns of a book, loaded without the entity (and its lazy user)
+ * when the search index is rebuilt from the table.
+ */
+public class BookSearchDocument {
+    private final Long id;
+    private final Long userId;
+    private final String title;
+    private final String author;
+    private final String description;
+
+    public BookSearchDocument(Long id, Long userId, String title, String author, String description) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.author = author;
+        this.description = description;
+    }
+
+    public static BookSearchDocument fromEntity(Book b) {
+        return new BookSearchDocument(b.getId(), b.getUser().getId(), b.getTitle(), b.getAuthor(), b.getDescription());
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getTitle() { return title; }
+    public String getAuthor() { return author; }
+    public String getDescription() { return description; }
+}
@@ -0,0 +1,417 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, author and description, partitioned by user.
+ *
+ * Terms are lower-cased and accent-folded; each query token matches any indexed term it
+ * is a prefix of, and all tokens of a query must match (AND). Results are ranked by
+ * field weight (title > author > description), exact matches scoring above prefix ones.
+ * The index is rebuilt from the table on startup and kept current by BookController.
+ * Writes made on other instances arrive as library events; their books are re-read on a
+ * background thread, so the broker's delivering thread never waits on the database.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    static final char TITLE = 't';
+    static final char AUTHOR = 'a';
+    static final char DESCRIPTION = 'd';
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LibraryEventBroker broker;
+
+    @Value("${search.index.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+
+    // Books written while a rebuild is running; the rebuild must not overwrite them with stale rows
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    private ExecutorService remoteWrites;
+
+    @PostConstruct
+    void subscribe() {
+        remoteWrites = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "book-search-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        broker.subscribe(event -> {
+            if (!event.isLocal() && event.getUserId() != null) {
+                remoteWrites.execute(() -> apply(event));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (remoteWrites != null) {
+            remoteWrites.shutdownNow();
+        }
+    }
+
+    // Events without a book are bulk writes (imports, batch progress): re-read the user's books
+    private void apply(LibraryEvent event) {
+        try {
+            if (event.getBookId() == null) {
+                bookRepository.findSearchDocumentsByUserId(event.getUserId()).forEach(this::index);
+            } else if (LibraryEvent.DELETED.equals(event.getType())) {
+                remove(event.getUserId(), event.getBookId());
+            } else {
+                Optional<BookSearchDocument> doc = bookRepository.findSearchDocument(event.getBookId());
+                if (doc.isPresent()) {
+                    index(doc.get());
+                } else {
+                    remove(event.getUserId(), event.getBookId());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not apply {} event for user {} to the search index", event.getType(), event.getUserId(), e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(BookSearchDocument doc) {
+        UserIndex userIndex = users.computeIfAbsent(doc.getUserId(), id -> new UserIndex());
+        userIndex.lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                touchedDuringRebuild.add(doc.getId());
+            }
+            userIndex.put(doc.getId(), termsOf(doc));
+        } finally {
+            userIndex.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long userId, Long bookId) {
+        UserIndex userIndex = users.computeIfAbsent(userId, id -> new UserIndex());
+        userIndex.lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                touchedDuringRebuild.add(bookId);
+            }
+            userIndex.remove(bookId);
+        } finally {
+            userIndex.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the user's books matching every given term, best match first.
+     * Blank arguments are ignored; title and author terms only match their own field,
+     * free-text terms match any field. Pass the score and id of the last hit of the
+     * previous page (or nulls) to continue after it.
+     */
+    public Hits search(Long userId, String title, String author, String text,
+                       Float afterScore, Long afterId, int limit) {
+        UserIndex userIndex = users.get(userId);
+        if (userIndex == null) {
+            return Hits.EMPTY;
+        }
+
+        userIndex.lock.readLock().lock();
+        Map<Long, Float> scores = null;
+        try {
+            for (String token : tokenize(title)) {
+                scores = intersect(scores, userIndex.match(token, TITLE));
+            }
+            for (String token : tokenize(author)) {
+                scores = intersect(scores, userIndex.match(token, AUTHOR));
+            }
+            for (String token : tokenize(text)) {
+                Map<Long, Float> any = userIndex.match(token, TITLE);
+                mergeMax(any, userIndex.match(token, AUTHOR));
+                mergeMax(any, userIndex.match(token, DESCRIPTION));
+                scores = intersect(scores, any);
+            }
+        } finally {
+            userIndex.lock.readLock().unlock();
+        }
+        if (scores == null || scores.isEmpty()) {
+            return Hits.EMPTY;
+        }
+
+        // Keep only the best limit + 1 hits after the cursor; the extra one tells us there is a next page
+        Comparator<Map.Entry<Long, Float>> rank = (x, y) -> {
+            int byScore = Float.compare(y.getValue(), x.getValue());
+            return byScore != 0 ? byScore : Long.compare(y.getKey(), x.getKey());
+        };
+        PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(rank.reversed());
+        for (Map.Entry<Long, Float> e : scores.entrySet()) {
+            if (afterId != null && afterScore != null) {
+                int cmp = Float.compare(e.getValue(), afterScore);
+                if (cmp > 0 || (cmp == 0 && e.getKey() >= afterId)) {
+                    continue;
+                }
+            }
+            top.add(e);
+            if (top.size() > limit + 1) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Long, Float>> ordered = new ArrayList<>(top);
+        ordered.sort(rank);
+        boolean hasMore = ordered.size() > limit;
+        if (hasMore) {
+            ordered = ordered.subList(0, limit);
+        }
+
+        List<Long> ids = new ArrayList<>(ordered.size());
+        List<Float> hitScores = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, Float> e : ordered) {
+            ids.add(e.getKey());
+            hitScores.add(e.getValue());
+        }
+        return new Hits(ids, hitScores, scores.size(), hasMore);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "book-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Re-reads every book in id order, in batches, and indexes it. Searches fall back to
+     * the database until the first rebuild has completed.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        long count = 0;
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<BookSearchDocument> batch =
+                        bookRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, rebuildBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (BookSearchDocument doc : batch) {
+                    UserIndex userIndex = users.computeIfAbsent(doc.getUserId(), id -> new UserIndex());
+                    userIndex.lock.writeLock().lock();
+                    try {
+                        if (!touchedDuringRebuild.contains(doc.getId())) {
+                            userIndex.put(doc.getId(), termsOf(doc));
+                        }
+                    } finally {
+                        userIndex.lock.writeLock().unlock();
+                    }
+                }
+                count += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            ready = true;
+            logger.info("Book search index built: {} books in {} ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Book search index rebuild failed after {} books, searches will use the database", count, e);
+        } finally {
+            rebuilding = false;
+            touchedDuringRebuild.clear();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        if (!isAscii(folded)) {
+            folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] termsOf(BookSearchDocument doc) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(doc.getTitle())) {
+            terms.add(TITLE + token);
+        }
+        for (String token : tokenize(doc.getAuthor())) {
+            terms.add(AUTHOR + token);
+        }
+        for (String token : tokenize(doc.getDescription())) {
+            terms.add(DESCRIPTION + token);
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    private static float weight(char field) {
+        switch (field) {
+            case TITLE: return 3f;
+            case AUTHOR: return 2f;
+            default: return 1f;
+        }
+    }
+
+    private static Map<Long, Float> intersect(Map<Long, Float> acc, Map<Long, Float> next) {
+        if (acc == null) {
+            return next;
+        }
+        Map<Long, Float> result = new HashMap<>();
+        Map<Long, Float> smaller = acc.size() <= next.size() ? acc : next;
+        Map<Long, Float> larger = smaller == acc ? next : acc;
+        for (Map.Entry<Long, Float> e : smaller.entrySet()) {
+            Float other = larger.get(e.getKey());
+            if (other != null) {
+                result.put(e.getKey(), e.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private static void mergeMax(Map<Long, Float> into, Map<Long, Float> from) {
+        from.forEach((id, score) -> into.merge(id, score, Math::max));
+    }
+
+    public static final class Hits {
+        static final Hits EMPTY = new Hits(List.of(), List.of(), 0, false);
+
+        private final List<Long> ids;
+        private final List<Float> scores;
+        private final int total;
+        private final boolean hasMore;
+
+        Hits(List<Long> ids, List<Float> scores, int total, boolean hasMore) {
+            this.ids = ids;
+            this.scores = scores;
+            this.total = total;
+            this.hasMore = hasMore;
+        }
+
+        public List<Long> getIds() { return ids; }
+        public List<Float> getScores() { return scores; }
+        public int getTotal() { return total; }
+        public boolean hasMore() { return hasMore; }
+    }
+
+    private static final class UserIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // Field-prefixed term -> ids of books containing it; sorted so prefixes are a range scan
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<Long, String[]> docs = new HashMap<>();
+
+        void put(Long bookId, String[] bookTerms) {
+            remove(bookId);
+            for (String term : bookTerms) {
+                terms.computeIfAbsent(term, t -> new Postings()).add(bookId);
+            }
+            docs.put(bookId, bookTerms);
+        }
+
+        void remove(Long bookId) {
+            String[] old = docs.remove(bookId);
+            if (old == null) {
+                return;
+            }
+            for (String term : old) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(bookId) && postings.size == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+
+        Map<Long, Float> match(String token, char field) {
+            Map<Long, Float> scores = new HashMap<>();
+            String from = field + token;
+            float exact = weight(field) * 2;
+            float prefix = weight(field);
+            for (Map.Entry<String, Postings> e : terms.subMap(from, true, from + Character.MAX_VALUE, true).entrySet()) {
+                float score = e.getKey().length() == from.length() ? exact : prefix;
+                Postings postings = e.getValue();
+                for (int i = 0; i < postings.size; i++) {
+                    scores.merge(postings.ids[i], score, Math::max);
+                }
+            }
+            return scores;
+        }
+    }
+
+    // Unboxed, unordered id list; per-user lists are small enough for linear removal
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                long[] grown = new long[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
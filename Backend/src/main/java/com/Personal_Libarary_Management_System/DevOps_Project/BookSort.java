@@ -0,0 +1,53 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Orders supported by the paged book listing. Every order is made unique by the
+ * book id so it can be used for keyset pagination.
+ */
+public enum BookSort {
+    UPDATED("updatedAt", Sort.Direction.DESC),
+    CREATED("createdAt", Sort.Direction.DESC),
+    TITLE("title", Sort.Direction.ASC),
+    AUTHOR("author", Sort.Direction.ASC);
+
+    private final String property;
+    private final Sort.Direction defaultDirection;
+
+    BookSort(String property, Sort.Direction defaultDirection) {
+        this.property = property;
+        this.defaultDirection = defaultDirection;
+    }
+
+    public String getProperty() { return property; }
+
+    public Sort toSort(Sort.Direction direction) {
+        Sort.Direction dir = direction != null ? direction : defaultDirection;
+        return Sort.by(dir, property).and(Sort.by(dir, "id"));
+    }
+
+    public Object valueOf(Book book) {
+        switch (this) {
+            case UPDATED: return book.getUpdatedAt();
+            case CREATED: return book.getCreatedAt();
+            case TITLE: return book.getTitle();
+            default: return book.getAuthor();
+        }
+    }
+
+    /**
+     * Accepts the enum name or the entity property name, case-insensitively.
+     */
+    public static BookSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return UPDATED;
+        }
+        for (BookSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value) || sort.property.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value);
+    }
+}
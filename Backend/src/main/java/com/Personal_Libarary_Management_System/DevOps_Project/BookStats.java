@@ -0,0 +1,48 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Reading statistics for one user, as returned by GET /api/books/stats.
+ */
+public class BookStats implements Serializable {
+
+    public static class AuthorCount implements Serializable {
+        private final String author;
+        private final long books;
+
+        public AuthorCount(String author, long books) {
+            this.author = author;
+            this.books = books;
+        }
+
+        public String getAuthor() { return author; }
+        public long getBooks() { return books; }
+    }
+
+    private final long books;
+    private final long pagesRead;
+    private final long pagesTotal;
+    private final long booksFinished;
+    private final List<AuthorCount> topAuthors;
+
+    public BookStats(long books, long pagesRead, long pagesTotal, long booksFinished, List<AuthorCount> topAuthors) {
+        this.books = books;
+        this.pagesRead = pagesRead;
+        this.pagesTotal = pagesTotal;
+        this.booksFinished = booksFinished;
+        this.topAuthors = topAuthors;
+    }
+
+    public long getBooks() { return books; }
+    public long getPagesRead() { return pagesRead; }
+    public long getPagesTotal() { return pagesTotal; }
+    public long getBooksFinished() { return booksFinished; }
+    public List<AuthorCount> getTopAuthors() { return topAuthors; }
+
+    // Pages read over pages total, one decimal
+    public double getCompletionPercent() {
+        return pagesTotal == 0 ? 0 : Math.round(pagesRead * 1000.0 / pagesTotal) / 10.0;
+    }
+}
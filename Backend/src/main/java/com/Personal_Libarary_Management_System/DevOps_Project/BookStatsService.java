@@ -0,0 +1,328 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user reading statistics kept in user_book_stats and user_author_stats, so reading
+ * them never aggregates over books.
+ *
+ * Every book write changes the counters in the same transaction, after touching the book
+ * row: a {@link Delta} for most writes, and for progress updates a change computed in SQL
+ * from the rows the update matched. Reconciling locks the user's stats row first and then
+ * aggregates books, so it cannot interleave with a change. Rows are rebuilt on startup for
+ * users that have none, on demand when a user without a row reads, and periodically for
+ * everyone to repair drift (e.g. rows changed outside the application).
+ */
+@Service
+public class BookStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookStatsService.class);
+    private static final int RECONCILE_BATCH = 500;
+    private static final String TOTALS_SQL =
+            "SELECT books, pages_read, pages_total, books_finished FROM user_book_stats WHERE user_id = ?";
+    private static final RowMapper<long[]> TOTALS =
+            (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)};
+    // Moves pages_read and books_finished by what the progress UPDATE changed; it left each
+    // book's previous pages_read in pages_read_prev. %1$s selects the updated books.
+    private static final String PROGRESS_SQL = "UPDATE user_book_stats SET "
+            + "pages_read = pages_read + (SELECT COALESCE(SUM(pages_read - COALESCE(pages_read_prev, 0)), 0) %1$s), "
+            + "books_finished = books_finished + (SELECT COALESCE(SUM("
+            + "CASE WHEN pages_total > 0 AND pages_read >= pages_total THEN 1 ELSE 0 END - "
+            + "CASE WHEN pages_total > 0 AND pages_read_prev >= pages_total THEN 1 ELSE 0 END), 0) %1$s) "
+            + "WHERE user_id = ?";
+
+    /**
+     * Change to a user's counters. A null author leaves the per-author counts alone
+     * (progress updates never change the author).
+     */
+    public static final class Delta {
+        private long books;
+        private long pagesRead;
+        private long pagesTotal;
+        private long booksFinished;
+        private final Map<String, Integer> authors = new HashMap<>();
+
+        public Delta add(String author, Integer pagesRead, Integer pagesTotal) {
+            return change(1, author, pagesRead, pagesTotal);
+        }
+
+        public Delta remove(String author, Integer pagesRead, Integer pagesTotal) {
+            return change(-1, author, pagesRead, pagesTotal);
+        }
+
+        boolean isEmpty() {
+            return books == 0 && pagesRead == 0 && pagesTotal == 0 && booksFinished == 0
+                    && authors.values().stream().allMatch(count -> count == 0);
+        }
+
+        private Delta change(int sign, String author, Integer read, Integer total) {
+            int r = read != null ? read : 0;
+            int t = total != null ? total : 0;
+            books += sign;
+            pagesRead += (long) sign * r;
+            pagesTotal += (long) sign * t;
+            if (isFinished(r, t)) {
+                booksFinished += sign;
+            }
+            if (author != null) {
+                authors.merge(author, sign, Integer::sum);
+            }
+            return this;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LibraryCache libraryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${books.stats.top-authors:5}")
+    private int topAuthors;
+
+    @Value("${books.stats.reconcile-interval:6h}")
+    private Duration reconcileInterval;
+
+    private ScheduledExecutorService scheduler;
+    private Counter corrections;
+
+    static boolean isFinished(int pagesRead, int pagesTotal) {
+        return pagesTotal > 0 && pagesRead >= pagesTotal;
+    }
+
+    @PostConstruct
+    void init() {
+        corrections = Counter.builder("books.stats.corrections")
+                .description("Users whose counters differed from the books table when reconciled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies a change; must run in the transaction that wrote the book rows. Users
+     * without a stats row are skipped: their row is built from the table when first read.
+     */
+    @Transactional
+    public void apply(Long userId, Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        int updated = jdbcTemplate.update("UPDATE user_book_stats SET books = books + ?, pages_read = pages_read + ?, "
+                        + "pages_total = pages_total + ?, books_finished = books_finished + ? WHERE user_id = ?",
+                delta.books, delta.pagesRead, delta.pagesTotal, delta.booksFinished, userId);
+        if (updated == 0) {
+            return;
+        }
+        // The stats row is locked now, so author rows of this user cannot race
+        delta.authors.forEach((author, change) -> {
+            if (change == 0) {
+                return;
+            }
+            int rows = jdbcTemplate.update("UPDATE user_author_stats SET books = books + ? WHERE user_id = ? AND author = ?",
+                    change, userId, author);
+            if (rows == 0 && change > 0) {
+                jdbcTemplate.update("INSERT INTO user_author_stats (user_id, author, books) VALUES (?, ?, ?)",
+                        userId, author, change);
+            } else if (change < 0) {
+                jdbcTemplate.update("DELETE FROM user_author_stats WHERE user_id = ? AND author = ? AND books <= 0",
+                        userId, author);
+            }
+        });
+    }
+
+    /**
+     * Applies the progress updates just made to the given books of the user (see
+     * BookProgressService); must run in the transaction that updated them, which still
+     * holds their rows.
+     */
+    @Transactional
+    public void applyProgress(Long userId, List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        String books = "FROM books WHERE user_id = ? AND id IN ("
+                + String.join(",", Collections.nCopies(bookIds.size(), "?")) + ")";
+        List<Object> args = new ArrayList<>(2 * bookIds.size() + 3);
+        for (int i = 0; i < 2; i++) {
+            args.add(userId);
+            args.addAll(bookIds);
+        }
+        args.add(userId);
+        jdbcTemplate.update(String.format(PROGRESS_SQL, books), args.toArray());
+    }
+
+    /**
+     * Locks the book and returns the delta its deletion will cause, or null when the user
+     * does not own such a book. Call inside the deleting transaction.
+     */
+    @Transactional
+    public Delta removal(Long bookId, Long userId) {
+        List<Delta> rows = jdbcTemplate.query(
+                "SELECT author, pages_read, pages_total FROM books WHERE id = ? AND user_id = ? FOR UPDATE",
+                (rs, i) -> new Delta().remove(rs.getString(1), (Integer) rs.getObject(2), (Integer) rs.getObject(3)),
+                bookId, userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public BookStats getStats(Long userId) {
+        BookStats stats = read(userId);
+        if (stats == null) {
+            reconcile(userId);
+            stats = read(userId);
+        }
+        return stats;
+    }
+
+    /**
+     * Rebuilds one user's rows from the books table. Returns true when the stored
+     * counters were wrong (or missing).
+     */
+    public boolean reconcile(Long userId) {
+        Boolean changed = transactionTemplate.execute(status -> {
+            long[] stored = lockStatsRow(userId);
+            long[] actual = jdbcTemplate.queryForObject("SELECT COUNT(*), "
+                    + "COALESCE(SUM(COALESCE(pages_read, 0)), 0), COALESCE(SUM(COALESCE(pages_total, 0)), 0), "
+                    + "COALESCE(SUM(CASE WHEN pages_total > 0 AND pages_read >= pages_total THEN 1 ELSE 0 END), 0) "
+                    + "FROM books WHERE user_id = ?", TOTALS, userId);
+            jdbcTemplate.update("UPDATE user_book_stats SET books = ?, pages_read = ?, pages_total = ?, "
+                            + "books_finished = ?, reconciled_at = ? WHERE user_id = ?",
+                    actual[0], actual[1], actual[2], actual[3], Timestamp.valueOf(LocalDateTime.now()), userId);
+
+            Map<String, Long> authorsBefore = new HashMap<>();
+            jdbcTemplate.query("SELECT author, books FROM user_author_stats WHERE user_id = ?",
+                    rs -> { authorsBefore.put(rs.getString(1), rs.getLong(2)); }, userId);
+            jdbcTemplate.update("DELETE FROM user_author_stats WHERE user_id = ?", userId);
+            jdbcTemplate.update("INSERT INTO user_author_stats (user_id, author, books) "
+                    + "SELECT user_id, author, COUNT(*) FROM books WHERE user_id = ? GROUP BY user_id, author", userId);
+            Map<String, Long> authorsAfter = new HashMap<>();
+            jdbcTemplate.query("SELECT author, books FROM user_author_stats WHERE user_id = ?",
+                    rs -> { authorsAfter.put(rs.getString(1), rs.getLong(2)); }, userId);
+
+            return stored == null || !Arrays.equals(stored, actual) || !Objects.equals(authorsBefore, authorsAfter);
+        });
+        if (Boolean.TRUE.equals(changed)) {
+            libraryCache.booksChanged(userId);
+        }
+        return Boolean.TRUE.equals(changed);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReconciler() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "book-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(() -> reconcileUsers(true));
+        long interval = reconcileInterval.toMillis();
+        if (interval > 0) {
+            scheduler.scheduleWithFixedDelay(() -> reconcileUsers(false), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Walks all users (or only those without a stats row) in id order and rebuilds them.
+     */
+    void reconcileUsers(boolean missingOnly) {
+        String sql = missingOnly
+                ? "SELECT u.id FROM users u LEFT JOIN user_book_stats s ON s.user_id = u.id "
+                        + "WHERE s.user_id IS NULL AND u.id > ? ORDER BY u.id LIMIT " + RECONCILE_BATCH
+                : "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT " + RECONCILE_BATCH;
+        long started = System.nanoTime();
+        long afterId = 0;
+        int users = 0;
+        int corrected = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, afterId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long userId : ids) {
+                    if (reconcile(userId) && !missingOnly) {
+                        corrections.increment();
+                        corrected++;
+                    }
+                    users++;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (users > 0) {
+                logger.info("Reconciled reading stats of {} users ({} corrected) in {} ms", users, corrected,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Reading stats reconciliation stopped after {} users", users, e);
+        }
+    }
+
+    private BookStats read(Long userId) {
+        List<long[]> totals = jdbcTemplate.query(TOTALS_SQL, TOTALS, userId);
+        if (totals.isEmpty()) {
+            return null;
+        }
+        long[] row = totals.get(0);
+        List<BookStats.AuthorCount> authors = jdbcTemplate.query(
+                "SELECT author, books FROM user_author_stats WHERE user_id = ? ORDER BY books DESC, author DESC LIMIT ?",
+                (rs, i) -> new BookStats.AuthorCount(rs.getString(1), rs.getLong(2)), userId, topAuthors);
+        return new BookStats(row[0], row[1], row[2], row[3], authors);
+    }
+
+    // Returns the stored totals (null when the row had to be created); the row stays locked
+    private long[] lockStatsRow(Long userId) {
+        String select = TOTALS_SQL + " FOR UPDATE";
+        List<long[]> rows = jdbcTemplate.query(select, TOTALS, userId);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO user_book_stats (user_id, books, pages_read, pages_total, books_finished) "
+                    + "VALUES (?, 0, 0, 0, 0)", userId);
+            return null;
+        } catch (DuplicateKeyException e) {
+            // Created concurrently; lock that row instead
+            return jdbcTemplate.query(select, TOTALS, userId).get(0);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes feed for offline clients: books whose updated_at is after the cursor (one range
+ * scan of idx_books_user_updated) merged with tombstones of deleted books, both ordered by
+ * (time, id). The work per call is proportional to the number of changes, not to the size
+ * of the library.
+ *
+ * Timestamps are taken before commit, so a transaction can become visible with a time the
+ * feed has already passed. Both queries therefore stop at now - books.sync.lag and no page
+ * moves the cursor past it; changes inside that window are sent by a later call, once they
+ * have settled. Clients apply changes idempotently by id.
+ */
+@Service
+public class BookSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSyncService.class);
+    static final String CURSOR_KEY = "changes";
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final long PURGE_INTERVAL_HOURS = 24;
+    private static final int PURGE_BATCH = 1000;
+
+    /**
+     * The cursor is older than the tombstone retention, so deletions may have been
+     * forgotten; the client has to sync from scratch.
+     */
+    public static class ExpiredCursorException extends RuntimeException {
+        public ExpiredCursorException() {
+            super("Cursor has expired; sync again without since");
+        }
+    }
+
+    private static final class Deletion {
+        private final Long bookId;
+        private final LocalDateTime deletedAt;
+
+        private Deletion(Long bookId, LocalDateTime deletedAt) {
+            this.bookId = bookId;
+            this.deletedAt = deletedAt;
+        }
+    }
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${books.sync.lag:5s}")
+    private Duration lag;
+
+    @Value("${books.sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    private ScheduledExecutorService purger;
+
+    /**
+     * Leaves a tombstone for a deleted book; call in the deleting transaction.
+     */
+    @Transactional
+    public void recordDeletion(Long userId, Long bookId) {
+        jdbcTemplate.update("INSERT INTO book_tombstones (book_id, user_id, deleted_at) VALUES (?, ?, ?)",
+                bookId, userId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Returns up to limit changes after the cursor, or every book when since is null.
+     * Throws IllegalArgumentException for a malformed cursor and ExpiredCursorException
+     * for one older than the tombstone retention.
+     */
+    // Not read-only, so it never runs on a read replica: rows a lagging replica has not
+    // applied yet would be behind the cursor by the time they show up
+    @Transactional
+    public BookChanges changesSince(Long userId, String since, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settled = now.minus(lag);
+        LocalDateTime afterTime = BEGINNING;
+        Long afterId = 0L;
+        boolean fullSync = since == null || since.isBlank();
+        if (!fullSync) {
+            BookCursor cursor = BookCursor.decode(since);
+            if (!cursor.getKey().equals(CURSOR_KEY)) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            afterTime = cursor.getValueAsDateTime();
+            afterId = cursor.getId();
+            if (afterTime.isBefore(now.minus(tombstoneRetention))) {
+                throw new ExpiredCursorException();
+            }
+        }
+
+        // limit + 1 of each tells whether anything is left after this page
+        List<Book> books = bookRepository.findChangedAfter(userId, afterTime, afterId, settled,
+                PageRequest.ofSize(limit + 1));
+        // A full sync has nothing to delete
+        List<Deletion> deletions = fullSync ? List.of() : jdbcTemplate.query(
+                "SELECT book_id, deleted_at FROM book_tombstones WHERE user_id = ? "
+                        + "AND (deleted_at > ? OR (deleted_at = ? AND book_id > ?)) AND deleted_at <= ? "
+                        + "ORDER BY deleted_at, book_id LIMIT ?",
+                (rs, i) -> new Deletion(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()),
+                userId, Timestamp.valueOf(afterTime), Timestamp.valueOf(afterTime), afterId,
+                Timestamp.valueOf(settled), limit + 1);
+
+        List<BookDto> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        LocalDateTime lastTime = null;
+        Long lastId = null;
+        int b = 0;
+        int d = 0;
+        while (changed.size() + deleted.size() < limit && (b < books.size() || d < deletions.size())) {
+            boolean takeBook = d >= deletions.size() || (b < books.size()
+                    && compare(books.get(b).getUpdatedAt(), books.get(b).getId(),
+                               deletions.get(d).deletedAt, deletions.get(d).bookId) < 0);
+            if (takeBook) {
+                Book book = books.get(b++);
+                changed.add(BookDto.fromEntity(book));
+                lastTime = book.getUpdatedAt();
+                lastId = book.getId();
+            } else {
+                Deletion deletion = deletions.get(d++);
+                deleted.add(deletion.bookId);
+                lastTime = deletion.deletedAt;
+                lastId = deletion.bookId;
+            }
+        }
+        boolean hasMore = b < books.size() || d < deletions.size();
+
+        // Everything up to settled has been sent; a cursor already past it (another
+        // instance's clock) is kept rather than moved back
+        if (!hasMore && (lastTime == null || lastTime.isBefore(settled))) {
+            lastTime = afterTime.isAfter(settled) ? afterTime : settled;
+            lastId = afterTime.isAfter(settled) ? afterId : 0L;
+        }
+        String next = new BookCursor(CURSOR_KEY, lastTime, lastId).encode();
+        return new BookChanges(changed, deleted, next, hasMore);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurger() {
+        purger = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "book-tombstone-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeTombstones, 0, PURGE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes tombstones past the retention in small batches, so no long lock is held.
+     */
+    void purgeTombstones() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(tombstoneRetention));
+        long purged = 0;
+        try {
+            int count;
+            do {
+                count = jdbcTemplate.update("DELETE FROM book_tombstones WHERE deleted_at < ? LIMIT " + PURGE_BATCH, cutoff);
+                purged += count;
+            } while (count == PURGE_BATCH && !Thread.currentThread().isInterrupted());
+            if (purged > 0) {
+                logger.info("Purged {} book tombstones older than {}", purged, tombstoneRetention);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Purging book tombstones stopped after {} rows", purged, e);
+        }
+    }
+
+    private static int compare(LocalDateTime time, Long id, LocalDateTime otherTime, Long otherId) {
+        int byTime = time.compareTo(otherTime);
+        return byTime != 0 ? byTime : id.compareTo(otherId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted book so sync clients learn about the deletion. Rows are
+ * written and purged with plain SQL by BookSyncService; the entity only defines the table.
+ */
+@Entity
+@Table(name = "book_tombstones", indexes = {
+    @Index(name = "idx_tombstones_user_deleted", columnList = "user_id, deleted_at, book_id"),
+    @Index(name = "idx_tombstones_deleted", columnList = "deleted_at")
+})
+public class BookTombstone {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public Long getBookId() { return bookId; }
+    public Long getUserId() { return userId; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+}
@@ -0,0 +1,43 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * Field rules shared by the single-book endpoints and the bulk import.
+ * Each check returns an error message, or null when the value is acceptable.
+ */
+public final class BookValidation {
+
+    static final int MAX_TITLE_LENGTH = 255;
+    static final int MAX_AUTHOR_LENGTH = 255;
+    static final int MAX_DESCRIPTION_LENGTH = 1000;
+
+    private BookValidation() {}
+
+    public static String pagesError(int total, int read) {
+        if (total < 0 || read < 0) {
+            return "pagesTotal and pagesRead must be non-negative";
+        }
+        if (read > total) {
+            return "pagesRead cannot exceed pagesTotal";
+        }
+        return null;
+    }
+
+    public static String fieldsError(String title, String author, String description) {
+        if (title == null || title.isBlank()) {
+            return "title is required";
+        }
+        if (author == null || author.isBlank()) {
+            return "author is required";
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            return "title cannot exceed " + MAX_TITLE_LENGTH + " characters";
+        }
+        if (author.length() > MAX_AUTHOR_LENGTH) {
+            return "author cannot exceed " + MAX_AUTHOR_LENGTH + " characters";
+        }
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            return "description cannot exceed " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+}
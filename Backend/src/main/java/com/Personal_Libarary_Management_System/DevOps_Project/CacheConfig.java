@@ -0,0 +1,31 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The cache backend is chosen with spring.cache.type. For the default Caffeine backend
+ * each cache gets its own size and TTL from cache.specs.&lt;name&gt;; another backend
+ * (e.g. a distributed one) only needs its own spring.cache.* settings.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheSpecs(Environment environment) {
+        return cacheManager -> {
+            for (String name : LibraryCache.CACHE_NAMES) {
+                String spec = environment.getProperty("cache.specs." + name);
+                if (spec != null) {
+                    cacheManager.registerCustomCache(name, Caffeine.from(spec).build());
+                }
+            }
+        };
+    }
+}
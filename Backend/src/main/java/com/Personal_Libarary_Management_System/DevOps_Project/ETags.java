@@ -0,0 +1,41 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * Entity tags for a book (its row version) and for a user's collection (the list cache
+ * generation, so it changes on exactly the writes that invalidate list pages).
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String book(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Weak: the collection is only ever matched by If-None-Match, and Tomcat does not
+    // compress responses carrying a strong tag
+    static String collection(long generation) {
+        return "W/\"c" + Long.toHexString(generation) + "\"";
+    }
+
+    /**
+     * True when an If-Match / If-None-Match header value is "*" or lists the tag. W/
+     * prefixes are ignored, since proxies that compress responses weaken our tags.
+     */
+    static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,18 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * Response of POST /api/books/events/ticket: pass ticket to GET /api/books/events within
+ * expiresIn seconds.
+ */
+public class EventStreamTicket {
+    private final String ticket;
+    private final long expiresIn;
+
+    public EventStreamTicket(String ticket, long expiresIn) {
+        this.ticket = ticket;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getTicket() { return ticket; }
+    public long getExpiresIn() { return expiresIn; }
+}
@@ -0,0 +1,67 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tickets for opening the event stream. EventSource cannot send an Authorization header,
+ * and a bearer token in the URL would end up in proxy logs and browser history, so the
+ * client first trades its token for a ticket (POST /api/books/events/ticket) and puts
+ * that in the URL instead.
+ *
+ * A ticket is signed like a bearer token, so any instance can check it, but it expires
+ * after events.sse.ticket-ttl, is refused as a bearer token and opens one stream only:
+ * used ids are remembered here until they expire (per instance).
+ */
+@Component
+public class EventStreamTickets {
+
+    static final String USE = "events";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${events.sse.ticket-ttl:30s}")
+    private Duration ttl;
+
+    // Ticket id -> expiry of the tickets already used
+    private final Map<String, Long> used = new ConcurrentHashMap<>();
+
+    public String issue(AuthenticatedUser user) {
+        return jwtUtil.generateTicket(user.getUsername(), user.getUserId(), USE, ttl.toMillis());
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Returns the ticket's user, or null when the ticket is not valid, has expired or
+     * was used before.
+     */
+    public AuthenticatedUser redeem(String ticket) {
+        Claims claims;
+        try {
+            claims = jwtUtil.extractClaims(ticket);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!USE.equals(claims.get(JwtUtil.USE_CLAIM, String.class)) || claims.getId() == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        // Only tickets of the last ttl are kept, so this stays small
+        used.values().removeIf(expiresAt -> expiresAt <= now);
+        if (used.putIfAbsent(claims.getId(), claims.getExpiration().getTime()) != null) {
+            return null;
+        }
+        return new AuthenticatedUser(claims.get("userId", Long.class), claims.getSubject());
+    }
+}
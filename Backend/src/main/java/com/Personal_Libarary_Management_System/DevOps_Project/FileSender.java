@@ -0,0 +1,144 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a stored blob to the response with validators, conditional-request handling
+ * and single byte-range support. Bodies are sent from the blob's local file (for a remote
+ * store, its cached copy, fetched only when a body is actually needed) with Tomcat's
+ * sendfile when the connector offers it, otherwise with {@link FileChannel#transferTo},
+ * so file bytes are never copied through the heap.
+ */
+@Component
+public class FileSender {
+
+    // Request attributes of Tomcat's sendfile support (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a plain write is cheaper than handing the file to the poller
+    @Value("${images.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    private final BlobStore blobStore;
+    private final Counter sendfileBytes;
+    private final Counter channelBytes;
+
+    public FileSender(BlobStore blobStore, MeterRegistry meterRegistry) {
+        this.blobStore = blobStore;
+        sendfileBytes = Counter.builder("images.bytes.served").baseUnit("bytes").tag("transfer", "sendfile")
+                .register(meterRegistry);
+        channelBytes = Counter.builder("images.bytes.served").baseUnit("bytes").tag("transfer", "channel")
+                .register(meterRegistry);
+    }
+
+    public void send(HttpServletRequest request, HttpServletResponse response,
+                     ImageFileCache.FileInfo file, CacheControl cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag/Last-Modified and answers 304 (or 412) on its own when the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(file.getEtag(), file.getLastModified())) {
+            return;
+        }
+
+        long length = file.getLength();
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && ifRangeMatches(request, file)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range header is ignored and the full file is sent
+                ranges = List.of();
+            }
+            // Multipart/byteranges is not worth it for images; several ranges get the full file
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        boolean bodyless = "HEAD".equals(request.getMethod()) || count <= 0;
+        Path path = bodyless ? null : blobStore.localFile(file.getKey());
+        if (!bodyless && path == null) {
+            // Deleted since its metadata was cached
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(count);
+        if (bodyless) {
+            return;
+        }
+
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfileBytes.increment(count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    // Truncated since its length was cached; the headers are out, so abort the response
+                    throw new IOException("File " + path + " is shorter than its cached length " + length);
+                }
+                position += sent;
+            }
+        }
+        channelBytes.increment(count);
+    }
+
+    // If-Range: only honour the range when the client's validator still matches
+    private static boolean ifRangeMatches(HttpServletRequest request, ImageFileCache.FileInfo file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.getEtag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == file.getLastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
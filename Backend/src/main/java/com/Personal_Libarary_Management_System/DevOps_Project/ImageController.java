@@ -1,41 +1,98 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/images")
 public class ImageController {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    // Stored names are content hashes (or UUIDs for older uploads) and never change content
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    // The thumbnail URL answers with the original until the thumbnail exists, so revalidate it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageFileCache imageFileCache;
+
+    @Autowired
+    private FileSender fileSender;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    // Send clients to a presigned store URL instead of streaming the bytes (S3 store only)
+    @Value("${images.store.redirect:false}")
+    private boolean redirect;
+
+    @Value("${images.store.redirect-ttl:1h}")
+    private Duration redirectTtl;
+
+    /**
+     * Serves a thumbnail, or the original while the thumbnail is still being generated.
+     * Missing thumbnails (e.g. for covers uploaded before thumbnails existed) are queued here.
+     */
+    @GetMapping("/thumbs/{size}/{filename:.+}")
+    public void getThumbnail(@PathVariable int size, @PathVariable String filename,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!ImageStorageService.isThumbnailSize(size) || filename.contains("..")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ImageFileCache.FileInfo thumbnail = imageFileCache.lookup(ImageStorageService.thumbnailKey(filename, size));
+        if (thumbnail != null) {
+            send(request, response, thumbnail, IMMUTABLE);
+            return;
+        }
+        ImageFileCache.FileInfo original = imageFileCache.lookup(filename);
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        imageStorageService.requestThumbnails(filename);
+        send(request, response, original, REVALIDATE);
+    }
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
-                }
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+    public void getImage(@PathVariable String filename,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageFileCache.FileInfo file = filename.contains("..") ? null : imageFileCache.lookup(filename);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        send(request, response, file, IMMUTABLE);
+    }
+
+    /**
+     * Redirects to the store when enabled and supported, otherwise sends the bytes. The
+     * store answers with the same Cache-Control; the redirect itself is cached for half
+     * the URL's lifetime (immutable blobs only), so the browser never follows an expired one.
+     */
+    private void send(HttpServletRequest request, HttpServletResponse response,
+                      ImageFileCache.FileInfo file, CacheControl cacheControl) throws IOException {
+        URI url = redirect ? blobStore.presignedUrl(file.getKey(), redirectTtl, cacheControl.getHeaderValue()) : null;
+        if (url == null) {
+            fileSender.send(request, response, file, cacheControl);
+            return;
         }
+        CacheControl redirectCache = cacheControl == IMMUTABLE
+                ? CacheControl.maxAge(redirectTtl.dividedBy(2)).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, redirectCache.getHeaderValue());
+        response.sendRedirect(url.toString());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metadata of served images. Blob keys are never reused for different content, so size,
+ * modification time, ETag and content type are read from the BlobStore once per key
+ * instead of on every request (a stat call locally, a HEAD request on S3). Anything that
+ * deletes a stored blob must invalidate it.
+ */
+@Component
+@ManagedResource(objectName = "DevOps_Project:name=ImageFileCache")
+public class ImageFileCache {
+
+    @Value("${images.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final Map<String, FileInfo> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Returns the blob's metadata, or null when it does not exist.
+     */
+    public FileInfo lookup(String key) throws IOException {
+        FileInfo info = entries.get(key);
+        if (info != null) {
+            hits.increment();
+            return info;
+        }
+        misses.increment();
+
+        BlobStore.BlobInfo blob = blobStore.stat(key);
+        if (blob == null) {
+            return null;
+        }
+        MediaType mediaType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        info = new FileInfo(key, blob.getLength(), blob.getLastModified(), mediaType.toString());
+
+        if (entries.size() >= maxEntries) {
+            // Evict an arbitrary tenth; a re-read costs one stat call
+            int toEvict = Math.max(1, maxEntries / 10);
+            Iterator<String> it = entries.keySet().iterator();
+            while (toEvict-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        entries.put(key, info);
+        return info;
+    }
+
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    @ManagedAttribute
+    public long getHits() { return hits.sum(); }
+
+    @ManagedAttribute
+    public long getMisses() { return misses.sum(); }
+
+    @ManagedAttribute
+    public int getSize() { return entries.size(); }
+
+    public static final class FileInfo {
+        private final String key;
+        private final long length;
+        private final long lastModified;
+        private final String etag;
+        private final String contentType;
+
+        FileInfo(String key, long length, long lastModified, String contentType) {
+            this.key = key;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+            this.contentType = contentType;
+        }
+
+        public String getKey() { return key; }
+        public long getLength() { return length; }
+        public long getLastModified() { return lastModified; }
+        public String getEtag() { return etag; }
+        public String getContentType() { return contentType; }
+    }
+}
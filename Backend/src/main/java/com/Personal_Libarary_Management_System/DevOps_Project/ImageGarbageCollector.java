@@ -0,0 +1,244 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes stored covers and thumbnails that no book refers to any more: covers replaced
+ * by an update or left behind by a deleted book. Covers are shared between books with the
+ * same image, so nothing is deleted when a single book lets go of one.
+ *
+ * Mark: every books.image_path is read in primary key batches into a sorted array of
+ * 64-bit fingerprints of the cover name, 8 bytes per cover. Sweep: the store is walked and
+ * each blob whose cover is not in the array and that is older than grace-period is
+ * deleted. A fingerprint collision can only keep an orphan, never delete a cover in use.
+ * Covers stored or reused (ImageStorageService touches those) after the mark has started
+ * are inside the grace period, as long as it is longer than a run. Listing and deleting
+ * are paced to max-io-per-second so the collector does not compete with requests for disk.
+ */
+@Component
+@ConditionalOnProperty(name = "images.gc.enabled", havingValue = "true")
+public class ImageGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ImageFileCache imageFileCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${images.gc.interval:24h}")
+    private Duration interval;
+
+    @Value("${images.gc.initial-delay:10m}")
+    private Duration initialDelay;
+
+    @Value("${images.gc.grace-period:24h}")
+    private Duration gracePeriod;
+
+    @Value("${images.gc.max-io-per-second:200}")
+    private int maxIoPerSecond;
+
+    @Value("${images.gc.batch-size:5000}")
+    private int batchSize;
+
+    // Only log what would be deleted
+    @Value("${images.gc.dry-run:true}")
+    private boolean dryRun;
+
+    private ScheduledExecutorService scheduler;
+    private Counter deletedFiles;
+    private Counter reclaimedBytes;
+    private long nextIoNanos;
+
+    @PostConstruct
+    void init() {
+        deletedFiles = Counter.builder("images.gc.deleted")
+                .description("Stored images deleted because no book refers to them")
+                .register(meterRegistry);
+        reclaimedBytes = Counter.builder("images.gc.reclaimed")
+                .description("Bytes freed by deleting unreferenced images")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "image-gc");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::collect, initialDelay.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * One mark-and-sweep pass.
+     */
+    void collect() {
+        long started = System.nanoTime();
+        long cutoff = System.currentTimeMillis() - gracePeriod.toMillis();
+        long[] examined = new long[1];
+        long[] deleted = new long[1];
+        long[] bytes = new long[1];
+        try {
+            Fingerprints referenced = markReferenced();
+            blobStore.walk((key, info) -> {
+                pace();
+                examined[0]++;
+                if (info.getLastModified() >= cutoff || referenced.contains(fingerprint(coverName(key)))) {
+                    return;
+                }
+                // Listed a while ago; a reused cover may have been touched since
+                pace();
+                BlobStore.BlobInfo current = blobStore.stat(key);
+                if (current == null || current.getLastModified() >= cutoff) {
+                    return;
+                }
+                if (dryRun) {
+                    logger.info("Image GC would delete {} ({} bytes)", key, current.getLength());
+                } else {
+                    blobStore.delete(key);
+                    imageFileCache.invalidate(key);
+                    deletedFiles.increment();
+                    reclaimedBytes.increment(current.getLength());
+                }
+                deleted[0]++;
+                bytes[0] += current.getLength();
+            });
+            logger.info("Image GC {} {} of {} stored images ({} bytes) in {} ms; {} covers in use",
+                    dryRun ? "found" : "deleted", deleted[0], examined[0], bytes[0],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), referenced.size());
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Image GC stopped after {} stored images ({} deleted)", examined[0], deleted[0], e);
+        }
+    }
+
+    private Fingerprints markReferenced() {
+        Fingerprints fingerprints = new Fingerprints();
+        String sql = "SELECT id, image_path FROM books WHERE id > ? ORDER BY id LIMIT " + batchSize;
+        long[] afterId = {0};
+        int rows;
+        do {
+            rows = jdbcTemplate.query(sql, rs -> {
+                int count = 0;
+                while (rs.next()) {
+                    afterId[0] = rs.getLong(1);
+                    String imagePath = rs.getString(2);
+                    if (imagePath != null && !imagePath.isEmpty()) {
+                        fingerprints.add(fingerprint(coverName(imagePath)));
+                    }
+                    count++;
+                }
+                return count;
+            }, afterId[0]);
+        } while (rows == batchSize);
+        fingerprints.seal();
+        return fingerprints;
+    }
+
+    private void pace() throws InterruptedIOException {
+        long now = System.nanoTime();
+        if (nextIoNanos > now) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nextIoNanos - now);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Image GC interrupted");
+            }
+        }
+        nextIoNanos = Math.max(now, nextIoNanos) + TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxIoPerSecond);
+    }
+
+    /**
+     * A cover's name without directories and extension, shared by the original
+     * ("&lt;hash&gt;.png") and its thumbnails ("thumbs/64/&lt;hash&gt;.jpg"). Older image paths
+     * may still carry the upload directory in front.
+     */
+    static String coverName(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // 64-bit FNV-1a
+    static long fingerprint(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Sorted, de-duplicated array of fingerprints; filled first, then searched.
+     */
+    static final class Fingerprints {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void seal() {
+            Arrays.sort(values, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || values[i] != values[unique - 1]) {
+                    values[unique++] = values[i];
+                }
+            }
+            size = unique;
+            values = Arrays.copyOf(values, size);
+        }
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores uploaded covers in the BlobStore under the SHA-256 of their content, so
+ * identical covers are kept once, and generates fixed-size JPEG thumbnails on a small
+ * bounded worker pool. Request threads only copy bytes; decoding and scaling never
+ * happen on them.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    /** Bounding-box sizes (px) of the generated thumbnails, smallest first. */
+    public static final int[] THUMBNAIL_SIZES = {64, 256};
+
+    static final String THUMBNAIL_DIR = "thumbs";
+
+    // Refuse to decode images that would need more than this many pixels in memory
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+
+    @Value("${images.thumbnail.workers:2}")
+    private int workers;
+
+    @Value("${images.thumbnail.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter storedUploads;
+    private Counter duplicateUploads;
+    private Counter originalBytes;
+    private Counter thumbnailBytes;
+    private Timer thumbnailTimer;
+
+    // Originals with a thumbnail job queued or running, so repeated requests do not pile up work
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "image-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+
+        storedUploads = Counter.builder("images.uploads").tag("result", "stored").register(meterRegistry);
+        duplicateUploads = Counter.builder("images.uploads").tag("result", "duplicate").register(meterRegistry);
+        originalBytes = Counter.builder("images.bytes.written").baseUnit("bytes").tag("kind", "original")
+                .register(meterRegistry);
+        thumbnailBytes = Counter.builder("images.bytes.written").baseUnit("bytes").tag("kind", "thumbnail")
+                .register(meterRegistry);
+        thumbnailTimer = Timer.builder("images.thumbnail.generation").register(meterRegistry);
+        Gauge.builder("images.thumbnail.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Copies the upload into the store and returns its key (hash plus extension).
+     * The upload is read twice, once for the hash and once streaming it to the store,
+     * so a cover that is already stored is never sent again. Thumbnails are generated
+     * in the background.
+     */
+    public String store(MultipartFile image) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(image.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String fileName = HexFormat.of().formatHex(digest.digest()) + extensionOf(image.getOriginalFilename());
+
+        if (blobStore.stat(fileName) != null && reuse(fileName)) {
+            logger.debug("Upload {} is a duplicate of {}", image.getOriginalFilename(), fileName);
+            duplicateUploads.increment();
+        } else {
+            String contentType = MediaTypeFactory.getMediaType(fileName)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            blobStore.put(fileName, image, image.getSize(), contentType);
+            storedUploads.increment();
+            originalBytes.increment(image.getSize());
+        }
+        requestThumbnails(fileName);
+        return fileName;
+    }
+
+    // Restarts the garbage collector's grace period for a cover no book may refer to yet
+    private boolean reuse(String fileName) {
+        try {
+            blobStore.touch(fileName);
+            return true;
+        } catch (IOException e) {
+            // Collected in the meantime; store it again
+            logger.debug("Cannot reuse {}: {}", fileName, e.getMessage());
+            return false;
+        }
+    }
+
+    public static String thumbnailKey(String fileName, int size) {
+        return THUMBNAIL_DIR + "/" + size + "/" + thumbnailName(fileName);
+    }
+
+    public static boolean isThumbnailSize(int size) {
+        for (int s : THUMBNAIL_SIZES) {
+            if (s == size) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues thumbnail generation for an original unless all thumbnails already exist.
+     */
+    public void requestThumbnails(String fileName) {
+        if (allThumbnailsExist(fileName) || !pending.add(fileName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateThumbnails(fileName);
+                } finally {
+                    pending.remove(fileName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Dropped under load; the next request for a missing thumbnail queues it again
+            pending.remove(fileName);
+            logger.warn("Thumbnail queue full, skipping {}", fileName);
+        }
+    }
+
+    private boolean allThumbnailsExist(String fileName) {
+        for (int size : THUMBNAIL_SIZES) {
+            try {
+                if (blobStore.stat(thumbnailKey(fileName, size)) == null) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generateThumbnails(String fileName) {
+        long start = System.nanoTime();
+        try {
+            Path original = blobStore.localFile(fileName);
+            BufferedImage source = original == null ? null : read(original);
+            if (source == null) {
+                logger.warn("Cannot create thumbnails for {}: not a readable image", fileName);
+                return;
+            }
+            for (int size : THUMBNAIL_SIZES) {
+                String target = thumbnailKey(fileName, size);
+                if (blobStore.stat(target) != null) {
+                    continue;
+                }
+                // A few KB at most, so kept in memory
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(scale(source, size), "jpg", out);
+                blobStore.put(target, new ByteArrayResource(out.toByteArray()), out.size(), MediaType.IMAGE_JPEG_VALUE);
+                thumbnailBytes.increment(out.size());
+            }
+            long elapsed = System.nanoTime() - start;
+            thumbnailTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.debug("Thumbnails for {} created in {} ms", fileName, elapsed / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Cannot create thumbnails for {}", fileName, e);
+        }
+    }
+
+    private static BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    logger.warn("Image {} is too large to thumbnail", file.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fits the image into a size x size box, halving repeatedly first so bilinear
+     * filtering keeps its quality on large reductions. Transparency is flattened onto white.
+     */
+    static BufferedImage scale(BufferedImage source, int size) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, Math.min((double) size / width, (double) size / height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return resize(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    static String thumbnailName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + ".jpg";
+    }
+
+    // Keep a short alphanumeric extension so the content type can still be derived from the name
+    static String extensionOf(String originalName) {
+        if (originalName == null) {
+            return "";
+        }
+        int dot = originalName.lastIndexOf('.');
+        if (dot < 0 || dot == originalName.length() - 1) {
+            return "";
+        }
+        String ext = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,5}") ? "." + ext : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
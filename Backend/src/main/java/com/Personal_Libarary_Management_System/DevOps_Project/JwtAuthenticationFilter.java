@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,28 +18,40 @@ import java.util.ArrayList;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    static final String EVENTS_PATH = "/api/books/events";
+
+    @Autowired
+    private JwtClaimsCache jwtClaimsCache;
+
     @Autowired
-    private JwtUtil jwtUtil;
+    private EventStreamTickets eventStreamTickets;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         String authHeader = request.getHeader("Authorization");
-        
+        String token = null;
+        String ticket = null;
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
+            token = authHeader.substring(7);
+        } else if (EVENTS_PATH.equals(request.getRequestURI())) {
+            // EventSource cannot set headers, so the event stream takes a single-use ticket instead
+            ticket = request.getParameter("ticket");
+        }
+
+        if (token != null || ticket != null) {
             try {
-                if (jwtUtil.isTokenValid(token)) {
-                    String username = jwtUtil.extractUsername(token);
-                    Long userId = jwtUtil.extractUserId(token);
-                    
+                AuthenticatedUser principal = token != null
+                        ? jwtClaimsCache.verify(token) : eventStreamTickets.redeem(ticket);
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
+                        new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    // Removed again by RequestLogFilter
+                    MDC.put("userId", String.valueOf(principal.getUserId()));
                 }
             } catch (Exception e) {
                 // Invalid token, continue without authentication
@@ -0,0 +1,134 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified tokens. A token is only HMAC-verified on the
+ * first request that presents it; later requests reuse the principal until the
+ * token expires or the entry ages out.
+ */
+@Component
+@ManagedResource(objectName = "DevOps_Project:name=JwtClaimsCache")
+public class JwtClaimsCache implements MeterBinder {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Returns the principal for the token, or null when the token is not valid.
+     */
+    public AuthenticatedUser verify(String token) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(token);
+        if (entry != null) {
+            if (entry.expiresAt > now) {
+                hits.increment();
+                return entry.principal;
+            }
+            entries.remove(token, entry);
+        }
+        misses.increment();
+
+        Claims claims;
+        try {
+            claims = jwtUtil.extractClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.get(JwtUtil.USE_CLAIM) != null) {
+            return null;
+        }
+        AuthenticatedUser principal = new AuthenticatedUser(claims.get("userId", Long.class), claims.getSubject());
+
+        long expiresAt = now + ttlMillis;
+        Date tokenExpiry = claims.getExpiration();
+        if (tokenExpiry != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiry.getTime());
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(token, new Entry(principal, expiresAt));
+        return principal;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // Drop expired entries first; if the cache is still full, evict an arbitrary tenth of it
+    private void makeRoom(long now) {
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().expiresAt <= now) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        });
+        int toEvict = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toEvict-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jwt.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("jwt.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("jwt.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("jwt.cache.size", entries, Map::size).register(registry);
+    }
+
+    @ManagedAttribute
+    public long getHits() { return hits.sum(); }
+
+    @ManagedAttribute
+    public long getMisses() { return misses.sum(); }
+
+    @ManagedAttribute
+    public long getEvictions() { return evictions.sum(); }
+
+    @ManagedAttribute
+    public int getSize() { return entries.size(); }
+
+    private static final class Entry {
+        final AuthenticatedUser principal;
+        final long expiresAt;
+
+        Entry(AuthenticatedUser principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -2,21 +2,49 @@ package com.Personal_Libarary_Management_System.DevOps_Project;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
+    // Set on tokens that only grant one narrow thing (e.g. opening the event stream); such
+    // tokens are never accepted as bearer tokens
+    static final String USE_CLAIM = "use";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Built once: deriving the HMAC key and the parser is not free and both are thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    private Timer validTimer;
+    private Timer expiredTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        validTimer = validationTimer("valid");
+        expiredTimer = validationTimer("expired");
+        invalidTimer = validationTimer("invalid");
     }
 
     public String generateToken(String username, Long userId) {
@@ -25,7 +53,22 @@ public class JwtUtil {
                 .claim("userId", userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * A token for a single purpose, identified by its use claim and a unique id.
+     */
+    public String generateTicket(String username, Long userId, String use, long ttlMillis) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim("userId", userId)
+                .claim(USE_CLAIM, use)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -46,11 +89,29 @@ public class JwtUtil {
         }
     }
 
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     * Throws a JwtException when the token is not valid.
+     */
+    public Claims extractClaims(String token) {
+        long start = System.nanoTime();
+        Timer timer = invalidTimer;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            timer = validTimer;
+            return claims;
+        } catch (ExpiredJwtException e) {
+            timer = expiredTimer;
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer validationTimer(String outcome) {
+        return Timer.builder("jwt.validation")
+                .description("Signature and expiry check of a bearer token (cache misses only)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-through caches for users, book ownership, per-user book list pages and reading stats.
+ * Values are plain serializable snapshots, never managed entities, so any
+ * {@link CacheManager} backend can hold them.
+ *
+ * List pages and stats are keyed by a per-user generation; a write replaces the generation
+ * instead of enumerating the user's pages, and the orphaned pages age out.
+ * Invalidation must happen after the write has committed. The writing instance
+ * invalidates directly; the others follow the library events the write publishes.
+ */
+@Component
+@ManagedResource(objectName = "DevOps_Project:name=LibraryCache")
+public class LibraryCache {
+
+    static final String USERS = "users";
+    static final String BOOK_OWNERS = "bookOwners";
+    static final String BOOK_PAGES = "bookPages";
+    static final String BOOK_PAGE_GENERATIONS = "bookPageGenerations";
+    static final String BOOK_STATS = "bookStats";
+
+    static final List<String> CACHE_NAMES = List.of(USERS, BOOK_OWNERS, BOOK_PAGES, BOOK_PAGE_GENERATIONS, BOOK_STATS);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LibraryEventBroker broker;
+
+    @PostConstruct
+    void init() {
+        broker.subscribe(event -> {
+            if (event.isLocal() || event.getUserId() == null) {
+                return;
+            }
+            if (event.getBookId() == null) {
+                booksChanged(event.getUserId());
+            } else if (LibraryEvent.DELETED.equals(event.getType())) {
+                bookDeleted(event.getBookId(), event.getUserId());
+            } else {
+                // Also replaces a "no such book" an early lookup may have cached
+                bookSaved(event.getBookId(), event.getUserId());
+            }
+        });
+    }
+
+    /**
+     * Returns the user's profile, or null when the user does not exist.
+     */
+    public UserProfile findUser(Long userId) {
+        return get(USERS, userId, () -> userRepository.findById(userId)
+                .map(user -> new UserProfile(user.getId(), user.getUsername(), user.getEmail()))
+                .orElse(null));
+    }
+
+    public void evictUser(Long userId) {
+        cache(USERS).evict(userId);
+    }
+
+    /**
+     * Returns the id of the user owning the book, or null when the book does not exist.
+     * Only the user_id column is read; the owner is never loaded.
+     */
+    public Long findBookOwner(Long bookId) {
+        return get(BOOK_OWNERS, bookId, () -> bookRepository.findOwnerId(bookId).orElse(null));
+    }
+
+    public BookPage findBookPage(Long userId, String query, Callable<BookPage> loader) {
+        return get(BOOK_PAGES, userId + ":" + generation(userId) + ":" + query, loader);
+    }
+
+    public BookStats findBookStats(Long userId, Callable<BookStats> loader) {
+        return get(BOOK_STATS, userId + ":" + generation(userId), loader);
+    }
+
+    public void bookSaved(Long bookId, Long userId) {
+        cache(BOOK_OWNERS).put(bookId, userId);
+        booksChanged(userId);
+    }
+
+    public void bookDeleted(Long bookId, Long userId) {
+        cache(BOOK_OWNERS).evict(bookId);
+        booksChanged(userId);
+    }
+
+    public void booksChanged(Long userId) {
+        cache(BOOK_PAGE_GENERATIONS).put(userId, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Current generation of the user's list pages and stats; also the collection ETag.
+     */
+    public long generation(Long userId) {
+        return get(BOOK_PAGE_GENERATIONS, userId, () -> ThreadLocalRandom.current().nextLong());
+    }
+
+    @ManagedAttribute(description = "Hit ratio per cache (Caffeine backend only)")
+    public Map<String, Double> getHitRatios() {
+        Map<String, Double> ratios = new TreeMap<>();
+        for (String name : CACHE_NAMES) {
+            CacheStats stats = stats(name);
+            if (stats != null) {
+                ratios.put(name, stats.hitRate());
+            }
+        }
+        return ratios;
+    }
+
+    @ManagedAttribute(description = "Hits, misses and evictions per cache (Caffeine backend only)")
+    public Map<String, String> getStatistics() {
+        Map<String, String> statistics = new TreeMap<>();
+        for (String name : CACHE_NAMES) {
+            CacheStats stats = stats(name);
+            if (stats != null) {
+                statistics.put(name, "hits=" + stats.hitCount() + ", misses=" + stats.missCount()
+                        + ", evictions=" + stats.evictionCount());
+            }
+        }
+        return statistics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String cacheName, Object key, Callable<T> loader) {
+        try {
+            return (T) cache(cacheName).get(key, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            // Let loader failures (e.g. an invalid cursor) surface as if there were no cache
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + name + " is not configured");
+        }
+        return cache;
+    }
+
+    private CacheStats stats(String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache instanceof CaffeineCache caffeine ? caffeine.getNativeCache().stats() : null;
+    }
+}
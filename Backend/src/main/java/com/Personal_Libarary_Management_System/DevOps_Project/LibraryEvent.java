@@ -0,0 +1,48 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * A change to one user's library, pushed to that user's open event streams. Events are
+ * hints: clients fetch the book or pull /api/books/changes to get the data. Each event
+ * names the instance that published it, so in-memory state that the writing instance
+ * updates directly (caches, the search index) only follows events from other instances.
+ */
+public class LibraryEvent implements Serializable {
+
+    public static final String ADDED = "added";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    // Several books changed (bulk writes, or the client fell behind); pull the changes feed
+    public static final String CHANGED = "changed";
+
+    private static final String THIS_INSTANCE = UUID.randomUUID().toString();
+
+    private final Long userId;
+    private final String type;
+    private final Long bookId;
+    private final String origin;
+
+    public LibraryEvent(Long userId, String type, Long bookId) {
+        this(userId, type, bookId, THIS_INSTANCE);
+    }
+
+    LibraryEvent(Long userId, String type, Long bookId, String origin) {
+        this.userId = userId;
+        this.type = type;
+        this.bookId = bookId;
+        this.origin = origin;
+    }
+
+    @JsonIgnore
+    public Long getUserId() { return userId; }
+    public String getType() { return type; }
+    public Long getBookId() { return bookId; }
+
+    // Published by this instance (also true for events looped back by LocalLibraryEventBroker)
+    @JsonIgnore
+    public boolean isLocal() { return THIS_INSTANCE.equals(origin); }
+}
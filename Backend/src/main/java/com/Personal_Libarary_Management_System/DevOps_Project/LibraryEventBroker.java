@@ -0,0 +1,16 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries library events between instances. Every instance publishes the writes it
+ * handles and subscribes once; LibraryEventHub then fans each event out to the streams
+ * connected locally. LocalLibraryEventBroker only loops back in-process; an implementation
+ * on a shared broker (Redis pub/sub, a message topic) extends the fan-out to all instances.
+ */
+public interface LibraryEventBroker {
+
+    void publish(LibraryEvent event);
+
+    void subscribe(Consumer<LibraryEvent> listener);
+}
@@ -0,0 +1,63 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/books")
+public class LibraryEventController {
+
+    @Autowired
+    private LibraryEventHub libraryEventHub;
+
+    @Autowired
+    private EventStreamTickets eventStreamTickets;
+
+    /**
+     * Trades the bearer token for a single-use ticket that opens the event stream, since
+     * EventSource cannot send an Authorization header.
+     */
+    @PostMapping("/events/ticket")
+    public ResponseEntity<?> ticket(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(new EventStreamTicket(eventStreamTickets.issue(principal), eventStreamTickets.getTtl().toSeconds()));
+    }
+
+    /**
+     * Server-sent events for the caller's library: "added", "updated" and "deleted" with the
+     * book id, and "changed" when the client should pull /api/books/changes. Browsers pass
+     * a ticket from POST /events/ticket; other clients can send an Authorization header.
+     */
+    @GetMapping("/events")
+    public ResponseEntity<SseEmitter> events(@AuthenticationPrincipal AuthenticatedUser principal) {
+        // The emitter return type leaves no room for an ApiResponse body on errors
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        SseEmitter emitter = libraryEventHub.connect(principal.getUserId());
+        if (emitter == null) {
+            return ResponseEntity.status(429).build();
+        }
+        // Keeps reverse proxies (nginx) from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    // A disconnected client fails the next write and the stream is dispatched with that
+    // error; the hub has already dropped it, so there is nothing left to report
+    @ExceptionHandler(IOException.class)
+    public void clientDisconnected() {
+    }
+}
@@ -0,0 +1,220 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user fan-out of library events to server-sent event streams.
+ *
+ * An open stream holds no thread: the request is async and only the emitter and a small
+ * bounded queue stay in memory. Writes happen on a few dispatcher threads, one drain at a
+ * time per stream, so a slow client never blocks the request that published the event.
+ * A stream whose queue is full loses its queued events and gets a single "changed" event
+ * instead, telling the client to catch up from the changes feed.
+ */
+@Component
+public class LibraryEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibraryEventHub.class);
+    private static final LibraryEvent HEARTBEAT = new LibraryEvent(null, "heartbeat", null);
+
+    @Autowired
+    private LibraryEventBroker broker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${events.sse.buffer:32}")
+    private int bufferSize;
+
+    @Value("${events.sse.max-per-user:8}")
+    private int maxPerUser;
+
+    @Value("${events.sse.heartbeat:25s}")
+    private Duration heartbeat;
+
+    @Value("${events.sse.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${events.sse.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    private final ConcurrentMap<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private ExecutorService dispatcher;
+    private ScheduledExecutorService heartbeats;
+    private Counter overflows;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, task -> {
+            Thread thread = new Thread(task, "library-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "library-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = heartbeat.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("events.sse.connections", open, AtomicInteger::get)
+                .description("Open library event streams")
+                .register(meterRegistry);
+        overflows = Counter.builder("events.sse.overflows")
+                .description("Streams that fell behind and were told to resync")
+                .register(meterRegistry);
+        broker.subscribe(this::deliver);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        connections.values().forEach(set -> set.forEach(connection -> connection.emitter.complete()));
+    }
+
+    /**
+     * Announces a committed change to every stream of the user, on all instances.
+     */
+    public void publish(Long userId, String type, Long bookId) {
+        try {
+            broker.publish(new LibraryEvent(userId, type, bookId));
+        } catch (RuntimeException e) {
+            // The write has committed; a lost hint only delays clients until their next sync
+            logger.warn("Could not publish {} event for user {}", type, userId, e);
+        }
+    }
+
+    /**
+     * Opens a stream for the user, or returns null when the user already has the
+     * maximum number of streams open.
+     */
+    public SseEmitter connect(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Connection connection = new Connection(userId, emitter);
+        AtomicBoolean added = new AtomicBoolean();
+        connections.compute(userId, (id, set) -> {
+            Set<Connection> streams = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (streams.size() < maxPerUser) {
+                added.set(streams.add(connection));
+            }
+            return streams.isEmpty() ? null : streams;
+        });
+        if (!added.get()) {
+            return null;
+        }
+        open.incrementAndGet();
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(() -> {
+            // Ends the stream cleanly; EventSource reconnects (and re-authenticates)
+            connection.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> connection.close());
+        // Commits the response headers right away, so the client sees the stream is open
+        connection.enqueue(HEARTBEAT);
+        return emitter;
+    }
+
+    private void deliver(LibraryEvent event) {
+        Set<Connection> streams = connections.get(event.getUserId());
+        if (streams != null) {
+            streams.forEach(connection -> connection.enqueue(event));
+        }
+    }
+
+    private void sendHeartbeats() {
+        // Also how dead connections are found: their write fails
+        connections.values().forEach(set -> set.forEach(connection -> {
+            if (connection.queue.isEmpty()) {
+                connection.enqueue(HEARTBEAT);
+            }
+        }));
+    }
+
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<LibraryEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(LibraryEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                queue.clear();
+                queue.offer(new LibraryEvent(userId, LibraryEvent.CHANGED, null));
+                overflows.increment();
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                LibraryEvent event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.getType()).data(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (the container completes the emitter) or it already completed
+                close();
+            } finally {
+                draining.set(false);
+                // An event offered after the loop ended but before the flag was cleared
+                if (!closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                    dispatcher.execute(this::drain);
+                }
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                connections.computeIfPresent(userId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+                open.decrementAndGet();
+                queue.clear();
+            }
+        }
+    }
+}
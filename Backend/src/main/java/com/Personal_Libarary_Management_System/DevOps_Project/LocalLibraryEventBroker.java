@@ -0,0 +1,29 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-instance stand-in for a shared broker: events are delivered to the local
+ * subscribers on the publishing thread. Subscribers must not block.
+ */
+@Component
+public class LocalLibraryEventBroker implements LibraryEventBroker {
+
+    private final List<Consumer<LibraryEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(LibraryEvent event) {
+        for (Consumer<LibraryEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<LibraryEvent> listener) {
+        listeners.add(listener);
+    }
+}
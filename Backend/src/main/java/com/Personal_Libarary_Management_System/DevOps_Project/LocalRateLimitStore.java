@@ -0,0 +1,85 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets in this JVM. A bucket is a single timestamp, the moment it will be full
+ * again (GCRA): taking a permit pushes it forward by one interval, and a request is
+ * refused when that would put it more than a full period ahead. Each request is one
+ * compare-and-set, without locks; buckets that have refilled completely hold no
+ * information and are swept away.
+ */
+@Component
+public class LocalRateLimitStore implements RateLimitStore, MeterBinder {
+
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> sweep(System.nanoTime()),
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public Decision tryAcquire(String key, RateLimit limit) {
+        return tryAcquire(key, limit, System.nanoTime());
+    }
+
+    Decision tryAcquire(String key, RateLimit limit, long now) {
+        long interval = limit.getIntervalNanos();
+        long burst = interval * limit.getPermits();
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now > 0 ? fullAt : now;
+            long next = start + interval;
+            long ahead = next - now;
+            if (ahead > burst) {
+                return new Decision(false, 0, start - now, ahead - burst);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new Decision(true, (int) ((burst - ahead) / interval), ahead, 0);
+            }
+        }
+    }
+
+    void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimit.buckets", buckets, Map::size)
+                .description("Rate-limit buckets in this instance that have not refilled yet")
+                .register(registry);
+    }
+}
@@ -1,7 +1,9 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Optional;
@@ -19,17 +21,26 @@ public class LoginController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private LibraryCache libraryCache;
+
+    // Only present with read replicas enabled
+    @Autowired(required = false)
+    private ReadYourWrites readYourWrites;
+
     @PostMapping("/auth/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
         try {
-            Optional<User> userOpt = userRepository.findByUsername(request.getUsername());
-            if (userOpt.isPresent() && userService.authenticate(request.getUsername(), request.getPassword())) {
+            Optional<User> userOpt = userService.authenticate(request.getUsername(), request.getPassword());
+            if (userOpt.isPresent()) {
                 User user = userOpt.get();
                 String token = jwtUtil.generateToken(user.getUsername(), user.getId());
                 return ResponseEntity.ok(new LoginResponse("Login successful", token, user.getId(), user.getUsername()));
             } else {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid username or password"));
             }
+        } catch (PasswordHasher.BusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(new ApiResponse("Login failed"));
         }
@@ -45,26 +56,29 @@ public class LoginController {
                 return ResponseEntity.status(400).body(new ApiResponse("Email already exists"));
             }
             
-            userService.registerUser(request.getUsername(), request.getPassword(), request.getEmail());
+            User user = userService.registerUser(request.getUsername(), request.getPassword(), request.getEmail());
+            if (readYourWrites != null) {
+                // The first profile read right after signing up must not miss the new account
+                readYourWrites.recordWrite(user.getId());
+            }
             return ResponseEntity.ok(new ApiResponse("Registration successful"));
+        } catch (PasswordHasher.BusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(new ApiResponse("Registration failed"));
         }
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            if (!jwtUtil.isTokenValid(jwt)) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body(new ApiResponse("Invalid token"));
             }
             
-            Long userId = jwtUtil.extractUserId(jwt);
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                return ResponseEntity.ok(new UserProfile(user.getId(), user.getUsername(), user.getEmail()));
+            UserProfile profile = libraryCache.findUser(principal.getUserId());
+            if (profile != null) {
+                return ResponseEntity.ok(profile);
             } else {
                 return ResponseEntity.status(404).body(new ApiResponse("User not found"));
             }
@@ -72,4 +86,11 @@ public class LoginController {
             return ResponseEntity.status(500).body(new ApiResponse("Error fetching profile"));
         }
     }
+
+    // Hashing queue is full: shed the request instead of letting it wait behind the backlog
+    private ResponseEntity<?> busy(PasswordHasher.BusyException e) {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiResponse("Server is busy, please retry shortly"));
+    }
 }
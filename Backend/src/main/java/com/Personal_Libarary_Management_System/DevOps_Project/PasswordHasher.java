@@ -0,0 +1,196 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing on a fixed pool of platform threads with a bounded queue. Request
+ * threads (virtual or not) only wait for the result, so a login storm uses at most
+ * {@code auth.password.workers} CPUs; once {@code auth.password.queue-capacity} hashes are
+ * waiting, new ones fail fast with {@link BusyException} instead of queueing.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int strength;
+
+    // 0 = half the CPUs, leaving the rest for book traffic
+    @Value("${auth.password.workers:0}")
+    private int workers;
+
+    @Value("${auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private Timer queueWait;
+    private Timer verifyMatch;
+    private Timer verifyMismatch;
+    private Timer hashSuccess;
+    private Timer hashUpgrade;
+    private Counter rejected;
+    // Moving average of one hash, for the Retry-After estimate
+    private volatile long averageHashNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @PostConstruct
+    void init() {
+        encoder = new BCryptPasswordEncoder(strength);
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+            Thread thread = new Thread(task, "bcrypt-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        queueWait = Timer.builder("auth.password.queue.wait").register(meterRegistry);
+        verifyMatch = Timer.builder("auth.password.verify").tag("outcome", "match").register(meterRegistry);
+        verifyMismatch = Timer.builder("auth.password.verify").tag("outcome", "mismatch").register(meterRegistry);
+        hashSuccess = Timer.builder("auth.password.hash").tag("outcome", "success").register(meterRegistry);
+        hashUpgrade = Timer.builder("auth.password.hash").tag("outcome", "upgrade").register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Hashes refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> {
+            long start = System.nanoTime();
+            boolean matches = encoder.matches(rawPassword, encodedPassword);
+            record(matches ? verifyMatch : verifyMismatch, start);
+            return matches;
+        }));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> hash(rawPassword, hashSuccess)));
+    }
+
+    /** True when the hash was made with a different cost than auth.password.bcrypt-strength. */
+    public boolean needsUpgrade(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword == null ? "" : encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * Rehashes at the configured cost without making the caller wait. Skipped when the
+     * queue is full; the next successful login tries again.
+     */
+    public void upgradeInBackground(CharSequence rawPassword, Consumer<String> onHashed) {
+        try {
+            submit(() -> {
+                try {
+                    onHashed.accept(hash(rawPassword, hashUpgrade));
+                } catch (RuntimeException e) {
+                    logger.warn("Could not store upgraded password hash", e);
+                }
+                return null;
+            });
+        } catch (BusyException e) {
+            logger.debug("Password hash upgrade skipped, hashing queue is full");
+        }
+    }
+
+    private String hash(CharSequence rawPassword, Timer timer) {
+        long start = System.nanoTime();
+        String hash = encoder.encode(rawPassword);
+        record(timer, start);
+        return hash;
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long queued = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                queueWait.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException(retryAfterSeconds());
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // BCrypt cost dominates login and registration latency
+    private void record(Timer timer, long start) {
+        long elapsed = System.nanoTime() - start;
+        averageHashNanos += (elapsed - averageHashNanos) / 8;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    // Time for the workers to drain what is queued now
+    private long retryAfterSeconds() {
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        double seconds = backlog * (double) averageHashNanos / executor.getMaximumPoolSize() / 1e9;
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+
+    /** Thrown when the hashing queue is full; callers answer 503 with Retry-After. */
+    public static class BusyException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        BusyException(long retryAfterSeconds) {
+            super("Password hashing is saturated");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
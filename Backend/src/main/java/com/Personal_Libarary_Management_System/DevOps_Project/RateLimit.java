@@ -0,0 +1,51 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * A named limit of permits per period, written as "60/1m". A client may use the whole
+ * allowance in a burst; after that permits come back evenly over the period.
+ */
+public class RateLimit {
+
+    private final String name;
+    private final int permits;
+    private final Duration period;
+
+    public RateLimit(String name, int permits, Duration period) {
+        if (permits < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs positive permits and period");
+        }
+        this.name = name;
+        this.permits = permits;
+        this.period = period;
+    }
+
+    /**
+     * Parses "permits/period" (e.g. "10/1m", "5/30s"); returns null for a blank value,
+     * which disables the limit.
+     */
+    public static RateLimit parse(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Rate limit " + name + " must look like 60/1m, got " + value);
+        }
+        int permits = Integer.parseInt(value.substring(0, slash).trim());
+        Duration period = DurationStyle.detectAndParse(value.substring(slash + 1).trim());
+        return new RateLimit(name, permits, period);
+    }
+
+    public String getName() { return name; }
+    public int getPermits() { return permits; }
+    public Duration getPeriod() { return period; }
+
+    // Time for one permit to come back
+    public long getIntervalNanos() {
+        return Math.max(1, period.toNanos() / permits);
+    }
+}
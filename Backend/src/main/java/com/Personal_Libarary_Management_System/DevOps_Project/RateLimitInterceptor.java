@@ -0,0 +1,150 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limits on the API. Each request is charged to one rule, chosen by
+ * endpoint, and to one bucket per rule and client: the user id from the token, or the
+ * client address for login, registration and unauthenticated calls. Every limited
+ * response carries RateLimit-Limit / -Remaining / -Reset; a refused one gets 429 with
+ * Retry-After.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.login:10/1m}")
+    private String loginLimit;
+
+    @Value("${rate-limit.register:5/10m}")
+    private String registerLimit;
+
+    @Value("${rate-limit.search:60/1m}")
+    private String searchLimit;
+
+    @Value("${rate-limit.book-writes:60/1m}")
+    private String bookWritesLimit;
+
+    @Value("${rate-limit.import:10/1h}")
+    private String importLimit;
+
+    @Value("${rate-limit.default:600/1m}")
+    private String defaultLimit;
+
+    private RateLimit login;
+    private RateLimit register;
+    private RateLimit search;
+    private RateLimit bookWrites;
+    private RateLimit importBooks;
+    private RateLimit fallback;
+    private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        login = RateLimit.parse("login", loginLimit);
+        register = RateLimit.parse("register", registerLimit);
+        search = RateLimit.parse("search", searchLimit);
+        bookWrites = RateLimit.parse("book-writes", bookWritesLimit);
+        importBooks = RateLimit.parse("import", importLimit);
+        fallback = RateLimit.parse("default", defaultLimit);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        RateLimit limit;
+        String client;
+        if (path.equals("/api/auth/login")) {
+            limit = login;
+            client = "ip:" + request.getRemoteAddr();
+        } else if (path.equals("/api/register")) {
+            limit = register;
+            client = "ip:" + request.getRemoteAddr();
+        } else {
+            limit = limitFor(method, path);
+            Long userId = userId();
+            client = userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+        }
+        if (limit == null) {
+            return true;
+        }
+
+        RateLimitStore.Decision decision = rateLimitStore.tryAcquire(limit.getName() + ":" + client, limit);
+        response.setHeader("RateLimit-Limit", String.valueOf(limit.getPermits()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(seconds(decision.getResetNanos())));
+        if (decision.isAllowed()) {
+            return true;
+        }
+
+        rejections.computeIfAbsent(limit.getName(), name -> Counter.builder("ratelimit.rejected")
+                .description("Requests refused with 429")
+                .tag("rule", name)
+                .register(meterRegistry)).increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds(decision.getRetryAfterNanos())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse("Too many requests, retry later"));
+        return false;
+    }
+
+    private RateLimit limitFor(String method, String path) {
+        if (path.equals("/api/books/search")) {
+            return search;
+        }
+        if (path.equals("/api/books/import") && method.equals("POST")) {
+            return importBooks;
+        }
+        // Adding or editing a book, which may upload an image
+        if ((method.equals("POST") && path.equals("/api/books"))
+                || (method.equals("PUT") && path.startsWith("/api/books/"))) {
+            return bookWrites;
+        }
+        return fallback;
+    }
+
+    private static Long userId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserId();
+        }
+        return null;
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
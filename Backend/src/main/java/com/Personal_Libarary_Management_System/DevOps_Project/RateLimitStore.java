@@ -0,0 +1,37 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+/**
+ * Holds the token buckets behind the rate limits. LocalRateLimitStore keeps them in this
+ * JVM, so each instance enforces its own share; an implementation on a shared store (e.g.
+ * a Redis script doing the same arithmetic on one key) makes the limits hold across all
+ * instances.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one permit from the bucket identified by key, if one is available.
+     */
+    Decision tryAcquire(String key, RateLimit limit);
+
+    final class Decision {
+        private final boolean allowed;
+        private final int remaining;
+        private final long resetNanos;
+        private final long retryAfterNanos;
+
+        public Decision(boolean allowed, int remaining, long resetNanos, long retryAfterNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.resetNanos = resetNanos;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public boolean isAllowed() { return allowed; }
+        // Permits left after this request
+        public int getRemaining() { return remaining; }
+        // Until the bucket is full again
+        public long getResetNanos() { return resetNanos; }
+        // Until the next permit, when refused
+        public long getRetryAfterNanos() { return retryAfterNanos; }
+    }
+}
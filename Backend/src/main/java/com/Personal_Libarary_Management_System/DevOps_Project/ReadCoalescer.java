@@ -0,0 +1,77 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight for reads: concurrent calls with the same key run the loader once and
+ * share its result, or its exception. Nothing is kept once the call finishes, so this
+ * only collapses requests that overlap in time; caching is left to {@link LibraryCache}.
+ *
+ * Keys must change whenever the data does. Book reads include the user's list
+ * generation, which writes replace after commit, so a request that starts after a write
+ * never joins a load that began before it.
+ */
+@Component
+public class ReadCoalescer {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader, or waits for an identical call already running. The path names
+     * the read in the metrics and is part of the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String path, String key, Callable<T> loader) throws Exception {
+        String flightKey = path + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            counter(path, "coalesced").increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw unwrap(e.getCause());
+            }
+        }
+
+        counter(path, "executed").increment();
+        try {
+            T value = loader.call();
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Counter counter(String path, String outcome) {
+        return counters.computeIfAbsent(path + ":" + outcome, name -> Counter.builder("books.reads")
+                .description("Book reads that ran a query, or were served by an identical one in flight")
+                .tag("path", path)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static Exception unwrap(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (Exception) cause;
+    }
+}
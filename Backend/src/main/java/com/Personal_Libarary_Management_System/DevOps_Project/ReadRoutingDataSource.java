@@ -0,0 +1,38 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections to read-only transactions (see {@link ReplicaSet}) and
+ * primary connections to everything else. It has to sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a connection before it
+ * publishes the read-only flag, and the proxy defers the choice to the first statement.
+ */
+class ReadRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaSet replicas;
+
+    ReadRoutingDataSource(DataSource primary, ReplicaSet replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicas.readConnection();
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Connections use the configured credentials");
+    }
+}
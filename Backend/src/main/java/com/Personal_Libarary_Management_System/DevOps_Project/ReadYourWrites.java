@@ -0,0 +1,53 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Users who changed their library in the last sticky-window. Their reads stay on the
+ * primary meanwhile, so a list fetched right after a save shows it even while the
+ * replicas catch up. Every book write publishes a library event, and the broker delivers
+ * it to all instances, so the window holds whichever instance serves the next read.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWrites {
+
+    private static final int MAX_USERS = 100_000;
+
+    @Autowired
+    private LibraryEventBroker broker;
+
+    @Value("${datasource.replicas.sticky-window:10s}")
+    private Duration window;
+
+    private Cache<Long, Boolean> recentWriters;
+
+    @PostConstruct
+    void init() {
+        recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_USERS)
+                .build();
+        broker.subscribe(event -> {
+            if (event.getUserId() != null) {
+                recordWrite(event.getUserId());
+            }
+        });
+    }
+
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isRecent(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+}
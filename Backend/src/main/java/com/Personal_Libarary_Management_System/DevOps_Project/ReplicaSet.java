@@ -0,0 +1,241 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas, their health and lag, and the choice of where a read-only
+ * transaction runs.
+ *
+ * Lag is measured with a heartbeat: every check-interval the primary's replica_heartbeat
+ * row gets the current time, and each replica is asked which time it holds. The
+ * difference is how far behind it is, to within one interval. A replica that cannot be
+ * reached, or lags more than max-lag, is skipped until a later check finds it caught up;
+ * with none left, reads go to the primary.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${datasource.replicas.urls:}")
+    private List<String> urls;
+
+    @Value("${datasource.replicas.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${datasource.replicas.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int poolSize;
+
+    @Value("${datasource.replicas.connection-timeout:1s}")
+    private Duration connectionTimeout;
+
+    @Value("${datasource.replicas.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${datasource.replicas.check-interval:1s}")
+    private Duration checkInterval;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private JdbcTemplate heartbeat;
+    private ScheduledExecutorService monitor;
+    private Counter toReplica;
+    private Counter sticky;
+    private Counter noReplica;
+
+    static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        // Until the first check nothing is read from it anyway (no lag known yet)
+        private volatile boolean up = true;
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(1);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+            dataSource.setReadOnly(true);
+            // Start even while a replica is down; the monitor brings it in once it answers
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis < 0 ? Double.NaN : r.lagMillis / 1000.0)
+                    .description("Replication lag measured by the last heartbeat, in seconds")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.up", replica, r -> r.up ? 1 : 0)
+                    .description("1 while the replica answers the heartbeat check")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            logger.info("Read replica {} at {}", name, url.trim());
+        }
+        heartbeat = new JdbcTemplate(primary);
+        toReplica = reads("replica");
+        sticky = reads("sticky");
+        noReplica = reads("no-replica");
+    }
+
+    // After the migrations have created replica_heartbeat; until then reads use the primary
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMonitor() {
+        monitor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    /**
+     * Connection for a read-only transaction: a replica in round robin, or the primary
+     * while the current user is inside their read-your-writes window or no replica is
+     * usable. A replica that fails to hand out a connection is marked down on the spot.
+     */
+    Connection readConnection() throws SQLException {
+        Long userId = currentUserId();
+        if (userId != null && readYourWrites.isRecent(userId)) {
+            sticky.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!usable(replica)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                toReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        noReplica.increment();
+        return primary.getConnection();
+    }
+
+    private boolean usable(Replica replica) {
+        return replica.up && replica.lagMillis >= 0 && replica.lagMillis <= maxLag.toMillis();
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        try {
+            heartbeat.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now);
+        } catch (Exception e) {
+            logger.warn("Could not write the replication heartbeat", e);
+        }
+        for (Replica replica : replicas) {
+            try {
+                Long beat = replica.jdbcTemplate.queryForObject(
+                        "SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+                replica.lagMillis = Math.max(0, System.currentTimeMillis() - beat);
+                if (!replica.up) {
+                    logger.info("Read replica {} is up, {} ms behind", replica.name, replica.lagMillis);
+                }
+                replica.up = true;
+            } catch (Exception e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        if (replica.up) {
+            logger.warn("Read replica {} is down, reading from the primary: {}", replica.name, cause.getMessage());
+        }
+        replica.up = false;
+    }
+
+    private Counter reads(String route) {
+        return Counter.builder("datasource.reads")
+                .description("Read-only transactions by where they ran: replica, sticky (primary, "
+                        + "read-your-writes) or no-replica (primary, none usable)")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserId();
+        }
+        return null;
+    }
+}
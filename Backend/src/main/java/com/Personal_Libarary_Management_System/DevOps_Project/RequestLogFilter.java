@@ -0,0 +1,138 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Gives every request an id: the X-Request-Id sent by nginx or the client when it looks
+ * like one, otherwise a new one. It is returned in the same header and kept in the MDC
+ * as requestId (userId is added by JwtAuthenticationFilter), so every log line of the
+ * request carries it.
+ *
+ * Requests are logged at most once, when they finish: a logging.requests.sample-rate
+ * share of them, plus every request slower than logging.requests.slow-threshold and every
+ * 5xx. Async requests (event streams, exports) are logged when they complete.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLogFilter.class);
+
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Value("${logging.requests.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${logging.requests.slow-threshold:1s}")
+    private Duration slowThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put("requestId", requestId);
+        long started = System.nanoTime();
+        slowQueryLog.beginRequest();
+        int status = 500;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            int queries = slowQueryLog.endRequest();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionLog(request, requestId, started, queries));
+            } else {
+                log(request, status, started, queries, true);
+            }
+            MDC.remove("requestId");
+            MDC.remove("userId");
+        }
+    }
+
+    private void log(HttpServletRequest request, int status, long started, int queries, boolean checkDuration) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        boolean slow = checkDuration && durationMs >= slowThreshold.toMillis();
+        if (status >= 500 || slow) {
+            logger.warn("{} {} {} in {} ms", request.getMethod(), request.getRequestURI(), status, durationMs,
+                    kv("method", request.getMethod()), kv("uri", request.getRequestURI()), kv("status", status),
+                    kv("durationMs", durationMs), kv("queries", queries));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            logger.info("{} {} {} in {} ms", request.getMethod(), request.getRequestURI(), status, durationMs,
+                    kv("method", request.getMethod()), kv("uri", request.getRequestURI()), kv("status", status),
+                    kv("durationMs", durationMs), kv("queries", queries));
+        }
+    }
+
+    /**
+     * Logs an async request once its response is complete, on whichever thread completes it.
+     * Streams stay open by design, so their duration is not checked against the threshold.
+     */
+    private final class CompletionLog implements AsyncListener {
+        private final HttpServletRequest request;
+        private final String requestId;
+        private final long started;
+        private final int queries;
+
+        CompletionLog(HttpServletRequest request, String requestId, long started, int queries) {
+            this.request = request;
+            this.requestId = requestId;
+            this.started = started;
+            this.queries = queries;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            int status = ((HttpServletResponse) event.getSuppliedResponse()).getStatus();
+            MDC.put("requestId", requestId);
+            try {
+                log(request, status, started, queries, false);
+            } finally {
+                MDC.remove("requestId");
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
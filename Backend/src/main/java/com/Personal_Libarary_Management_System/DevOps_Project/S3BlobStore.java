@@ -0,0 +1,395 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS S3, MinIO), shared by every instance.
+ *
+ * Uploads are streamed from their source: in one PUT, or above multipart-threshold in
+ * part-size parts, each part read straight from its offset in the source. Nothing is
+ * buffered beyond the client's copy buffers, and a retried request simply reopens the
+ * source. Reads go through a BlobDiskCache, so a blob is downloaded once per node and
+ * then sent from local disk; with images.store.redirect clients are sent to a presigned
+ * URL instead and the bytes do not pass through the backend at all.
+ */
+@Component
+@ConditionalOnProperty(name = "images.store.type", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3BlobStore.class);
+
+    // S3 rejects parts smaller than this, except the last
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Blank for AWS S3 itself
+    @Value("${images.store.s3.endpoint:}")
+    private String endpoint;
+
+    // The address browsers reach the store at, when it differs (e.g. outside Docker)
+    @Value("${images.store.s3.public-endpoint:}")
+    private String publicEndpoint;
+
+    @Value("${images.store.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${images.store.s3.bucket}")
+    private String bucket;
+
+    // Blank uses the default AWS credential chain (environment, profile, instance role)
+    @Value("${images.store.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${images.store.s3.secret-key:}")
+    private String secretKey;
+
+    // MinIO and most S3-compatible stores need bucket-in-path URLs
+    @Value("${images.store.s3.path-style:true}")
+    private boolean pathStyle;
+
+    @Value("${images.store.s3.create-bucket:false}")
+    private boolean createBucket;
+
+    @Value("${images.store.s3.multipart-threshold:16MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${images.store.s3.part-size:8MB}")
+    private DataSize partSize;
+
+    @Value("${images.store.cache.dir:uploads/blob-cache}")
+    private String cacheDir;
+
+    @Value("${images.store.cache.max-size:1GB}")
+    private DataSize cacheMaxSize;
+
+    private S3Client s3;
+    private S3Presigner presigner;
+    private BlobDiskCache cache;
+
+    @PostConstruct
+    void init() throws IOException {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3Configuration configuration = S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build();
+
+        S3ClientBuilder client = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        S3Presigner.Builder signer = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(configuration);
+        if (!endpoint.isBlank()) {
+            client.endpointOverride(URI.create(endpoint));
+        }
+        String presignEndpoint = publicEndpoint.isBlank() ? endpoint : publicEndpoint;
+        if (!presignEndpoint.isBlank()) {
+            signer.endpointOverride(URI.create(presignEndpoint));
+        }
+        s3 = client.build();
+        presigner = signer.build();
+        cache = new BlobDiskCache(Paths.get(cacheDir), cacheMaxSize.toBytes(), meterRegistry);
+        logger.info("Images stored in bucket {} at {}", bucket, endpoint.isBlank() ? "AWS S3" : endpoint);
+    }
+
+    // Startup does not wait for the store; until it answers, uploads and uncached reads fail
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkBucket() {
+        try {
+            try {
+                s3.headBucket(request -> request.bucket(bucket));
+            } catch (S3Exception e) {
+                if (e.statusCode() != 404 || !createBucket) {
+                    throw e;
+                }
+                s3.createBucket(request -> request.bucket(bucket));
+                logger.info("Created bucket {}", bucket);
+            }
+        } catch (S3Exception e) {
+            logger.warn("Image bucket {} is not usable: {}", bucket, e.getMessage());
+        } catch (SdkException e) {
+            logger.warn("Image store at {} is not reachable: {}", endpoint, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        presigner.close();
+        s3.close();
+    }
+
+    @Override
+    public BlobInfo stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(key));
+            return new BlobInfo(head.contentLength(), head.lastModified().toEpochMilli());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw new IOException("Cannot stat " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Cannot stat " + key, e);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStreamSource content, long length, String contentType) throws IOException {
+        try {
+            if (length < Math.max(multipartThreshold.toBytes(), MIN_PART_SIZE)) {
+                try (Reopening body = new Reopening(content, 0, length)) {
+                    s3.putObject(request -> request.bucket(bucket).key(key).contentType(contentType),
+                            RequestBody.fromContentProvider(body, length, contentType));
+                }
+            } else {
+                putMultipart(key, content, length, contentType);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (SdkException e) {
+            throw new IOException("Cannot store " + key, e);
+        }
+    }
+
+    private void putMultipart(String key, InputStreamSource content, long length, String contentType)
+            throws IOException {
+        long part = Math.max(partSize.toBytes(), MIN_PART_SIZE);
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(key).contentType(contentType))
+                .uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int number = 1;
+            for (long offset = 0; offset < length; offset += part, number++) {
+                long size = Math.min(part, length - offset);
+                int partNumber = number;
+                try (Reopening body = new Reopening(content, offset, size)) {
+                    String etag = s3.uploadPart(request -> request.bucket(bucket).key(key)
+                                    .uploadId(uploadId).partNumber(partNumber).contentLength(size),
+                            RequestBody.fromContentProvider(body, size, contentType)).eTag();
+                    parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+                }
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (IOException | RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abort) {
+                e.addSuppressed(abort);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Path localFile(String key) throws IOException {
+        return cache.get(key, target -> {
+            try (ResponseInputStream<GetObjectResponse> in = s3.getObject(request -> request.bucket(bucket).key(key))) {
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                return true;
+            } catch (S3Exception e) {
+                if (e.statusCode() == 404) {
+                    return false;
+                }
+                throw new IOException("Cannot fetch " + key, e);
+            } catch (SdkException e) {
+                throw new IOException("Cannot fetch " + key, e);
+            }
+        });
+    }
+
+    @Override
+    public URI presignedUrl(String key, Duration ttl, String cacheControl) {
+        try {
+            return presigner.presignGetObject(request -> request.signatureDuration(ttl)
+                            .getObjectRequest(get -> get.bucket(bucket).key(key).responseCacheControl(cacheControl)))
+                    .url().toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(request -> request.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new IOException("Cannot delete " + key, e);
+        }
+        cache.evict(key);
+    }
+
+    // Objects cannot be touched in place; a server-side copy onto itself gets a new
+    // Last-Modified, and stores refuse such a copy unless the metadata changes
+    @Override
+    public void touch(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(key));
+            Map<String, String> metadata = new HashMap<>(head.metadata());
+            metadata.put("touched-at", String.valueOf(System.currentTimeMillis()));
+            s3.copyObject(request -> request.sourceBucket(bucket).sourceKey(key)
+                    .destinationBucket(bucket).destinationKey(key)
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType(head.contentType())
+                    .metadata(metadata));
+        } catch (SdkException e) {
+            throw new IOException("Cannot touch " + key, e);
+        }
+    }
+
+    // Pages of up to 1000 keys are requested as the walk proceeds
+    @Override
+    public void walk(Visitor visitor) throws IOException {
+        try {
+            for (S3Object object : s3.listObjectsV2Paginator(request -> request.bucket(bucket)).contents()) {
+                visitor.visit(object.key(), new BlobInfo(object.size(), object.lastModified().toEpochMilli()));
+            }
+        } catch (SdkException e) {
+            throw new IOException("Cannot list bucket " + bucket, e);
+        }
+    }
+
+    /**
+     * One request body: length bytes of the source from offset. The SDK asks for a new
+     * stream on each attempt, so the previous one is closed then and the last one on close.
+     */
+    private static final class Reopening implements ContentStreamProvider, AutoCloseable {
+        private final InputStreamSource source;
+        private final long offset;
+        private final long length;
+        private InputStream current;
+
+        Reopening(InputStreamSource source, long offset, long length) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public InputStream newStream() {
+            try {
+                close();
+                InputStream in = source.getInputStream();
+                current = in;
+                in.skipNBytes(offset);
+                return new Bounded(in, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    // Ends after limit bytes; closing is left to Reopening
+    private static final class Bounded extends FilterInputStream {
+        private long remaining;
+
+        Bounded(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.StatisticsSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Slow-query log built on Hibernate statistics, which time every HQL, criteria and
+ * native query run through an EntityManager (not JdbcTemplate). Queries taking at least
+ * logging.slow-query.threshold are logged with their duration and row count.
+ *
+ * Within a request (opened and closed by RequestLogFilter) queries and lazy loads are
+ * also counted by statement or association; one run n-plus-one-threshold times or more,
+ * such as a lazy Book.user initialised for each book of a page, is logged once when
+ * the request ends.
+ */
+@Component
+public class SlowQueryLog implements HibernatePropertiesCustomizer, StatisticsFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final ThreadLocal<RequestQueries> currentRequest = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logging.slow-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${logging.slow-query.threshold:200ms}")
+    private Duration threshold;
+
+    @Value("${logging.slow-query.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    private Counter slowQueries;
+    private Counter repeatedQueries;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (!enabled) {
+            return;
+        }
+        hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+        hibernateProperties.put(StatisticsSettings.STATS_BUILDER, this);
+        // Statistics would otherwise also log a summary of every session at INFO
+        hibernateProperties.put(AvailableSettings.LOG_SESSION_METRICS, "false");
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        slowQueries = Counter.builder("db.queries.slow")
+                .description("Hibernate queries slower than logging.slow-query.threshold")
+                .register(meterRegistry);
+        repeatedQueries = Counter.builder("db.queries.repeated")
+                .description("Requests that ran one query or lazy load n-plus-one-threshold times or more")
+                .register(meterRegistry);
+        return new Statistics(sessionFactory);
+    }
+
+    /**
+     * Starts counting queries run by this thread for the current request.
+     */
+    void beginRequest() {
+        if (enabled) {
+            currentRequest.set(new RequestQueries());
+        }
+    }
+
+    /**
+     * Stops counting, logs repeated queries and returns how many queries and lazy loads
+     * the request ran, or -1 when they were not counted.
+     */
+    int endRequest() {
+        RequestQueries queries = currentRequest.get();
+        if (queries == null) {
+            return -1;
+        }
+        currentRequest.remove();
+        for (Map.Entry<String, Integer> entry : queries.counts.entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                repeatedQueries.increment();
+                logger.warn("Possible N+1: {} ran {} times in one request", entry.getKey(), entry.getValue(),
+                        kv("statement", entry.getKey()), kv("count", entry.getValue()));
+            }
+        }
+        return queries.total;
+    }
+
+    private static void count(String key) {
+        RequestQueries queries = currentRequest.get();
+        if (queries != null) {
+            queries.total++;
+            queries.counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static final class RequestQueries {
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int total;
+    }
+
+    private final class Statistics extends StatisticsImpl {
+
+        Statistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void queryExecuted(String query, int rows, long time) {
+            super.queryExecuted(query, rows, time);
+            count(query);
+            if (time >= threshold.toMillis()) {
+                slowQueries.increment();
+                logger.warn("Slow query ({} ms, {} rows): {}", time, rows, query,
+                        kv("durationMs", time), kv("rows", rows), kv("query", query));
+            }
+        }
+
+        @Override
+        public void fetchEntity(String entityName) {
+            super.fetchEntity(entityName);
+            count("lazy load of " + entityName);
+        }
+
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            count("lazy load of " + role);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.hibernate.StaleStateException;
+import org.slf4j.Marker;
+
+/**
+ * Drops Hibernate's ERROR for a batched UPDATE that matched no row (HHH100501 with a
+ * StaleStateException). On books that is an optimistic-lock conflict, which
+ * BookController already answers with 412; every other batch error is still logged.
+ * Registered in logback-spring.xml.
+ */
+public class StaleBatchLogFilter extends TurboFilter {
+
+    private static final String BATCH_LOGGER = "org.hibernate.orm.jdbc.batch";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || !BATCH_LOGGER.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // Hibernate formats the exception into the message rather than passing it along
+        boolean stale = format.startsWith("HHH100501") && format.contains("StaleStateException")
+                || t instanceof StaleStateException;
+        return stale ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
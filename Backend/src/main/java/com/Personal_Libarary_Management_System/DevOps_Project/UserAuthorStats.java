@@ -0,0 +1,44 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of books per author for one user, maintained with plain SQL by BookStatsService.
+ * The (user_id, books, author) index serves the top-authors query without sorting.
+ */
+@Entity
+@Table(name = "user_author_stats", indexes = {
+    @Index(name = "idx_author_stats_user_books", columnList = "user_id, books, author")
+})
+public class UserAuthorStats {
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(nullable = false)
+        private String author;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(userId, key.userId) && Objects.equals(author, key.author);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, author);
+        }
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long books;
+
+    public Key getId() { return id; }
+    public long getBooks() { return books; }
+}
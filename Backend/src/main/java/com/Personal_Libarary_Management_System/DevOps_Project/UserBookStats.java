@@ -0,0 +1,40 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user reading totals. Rows are maintained with plain SQL by BookStatsService;
+ * the entity only defines the table.
+ */
+@Entity
+@Table(name = "user_book_stats")
+public class UserBookStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long books;
+
+    @Column(name = "pages_read", nullable = false)
+    private long pagesRead;
+
+    @Column(name = "pages_total", nullable = false)
+    private long pagesTotal;
+
+    @Column(name = "books_finished", nullable = false)
+    private long booksFinished;
+
+    // Last time the row was rebuilt from the books table
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    public Long getUserId() { return userId; }
+    public long getBooks() { return books; }
+    public long getPagesRead() { return pagesRead; }
+    public long getPagesTotal() { return pagesTotal; }
+    public long getBooksFinished() { return booksFinished; }
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+}
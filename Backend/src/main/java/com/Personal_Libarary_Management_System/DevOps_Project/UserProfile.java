@@ -1,6 +1,8 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
-public class UserProfile {
+import java.io.Serializable;
+
+public class UserProfile implements Serializable {
     private Long id;
     private String username;
     private String email;
@@ -1,7 +1,6 @@
 package com.Personal_Libarary_Management_System.DevOps_Project;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -11,23 +10,36 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
 
-    public boolean authenticate(String username, String password) {
+    /**
+     * Loads the user once and checks the password. Hashes made with another BCrypt cost
+     * are replaced in the background after a successful check.
+     */
+    public Optional<User> authenticate(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            return passwordEncoder.matches(password, user.getPassword());
+            String hash = user.getPassword();
+            if (!passwordHasher.matches(password, hash)) {
+                return Optional.empty();
+            }
+            if (passwordHasher.needsUpgrade(hash)) {
+                passwordHasher.upgradeInBackground(password,
+                        upgraded -> userRepository.replacePasswordHash(user.getId(), hash, upgraded));
+            }
+            return userOpt;
         }
-        return false;
+        return Optional.empty();
     }
 
-    public void registerUser(String username, String password, String email) {
+    public User registerUser(String username, String password, String email) {
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHasher.encode(password));
         user.setEmail(email);
-        userRepository.save(user);
+        return userRepository.save(user);
     }
 
     public List<User> getAllUsers() {
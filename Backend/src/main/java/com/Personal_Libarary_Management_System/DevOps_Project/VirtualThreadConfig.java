@@ -0,0 +1,87 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in virtual-thread mode (spring.threads.virtual.enabled=true, Java 21+). Tomcat
+ * request processing and MVC async work (streamed exports) run on virtual threads, so
+ * a request blocked on JDBC or file I/O no longer holds a platform thread; the
+ * connection pool becomes the concurrency limit. BCrypt stays on the platform pool in
+ * {@link PasswordHasher}. Spring Boot 3.2+ reads the same property natively.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    // Component scanning also registers the nested classes on their own, without the
+    // condition above, so each repeats it
+    @Configuration
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    static class VirtualThreads {
+
+        private final ExecutorService executor = newVirtualThreadPerTaskExecutor("request-");
+
+        VirtualThreads() {
+            logger.info("Serving requests on virtual threads");
+        }
+
+        @Bean
+        public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+            return protocolHandler -> protocolHandler.setExecutor(executor);
+        }
+
+        @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+        public AsyncTaskExecutor applicationTaskExecutor() {
+            return new TaskExecutorAdapter(executor);
+        }
+
+        @PreDestroy
+        void shutdown() {
+            executor.shutdown();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    @ConditionalOnJava(value = JavaVersion.TWENTY_ONE, range = ConditionalOnJava.Range.OLDER_THAN)
+    static class Unsupported {
+
+        Unsupported() {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "using platform threads", Runtime.version().feature());
+        }
+    }
+
+    // Compiled for Java 17, so the Java 21 API is looked up reflectively
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available on this JVM", e);
+        }
+    }
+}
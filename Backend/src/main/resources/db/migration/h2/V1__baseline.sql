@@ -0,0 +1,72 @@
+-- H2 counterpart of mysql/V1__baseline.sql (tests and benchmarks). Like it, it also
+-- upgrades a database created earlier by db-init.sql or ddl-auto=update.
+
+CREATE SEQUENCE IF NOT EXISTS books_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    image_path VARCHAR(255),
+    image_size BIGINT,
+    pages_total INTEGER,
+    pages_read INTEGER,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_books_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Columns and type the first db-init.sql did not have
+ALTER TABLE books ADD COLUMN IF NOT EXISTS image_size BIGINT;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_total INTEGER;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_read INTEGER;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE books ALTER COLUMN description SET DATA TYPE VARCHAR(1000);
+-- Ids used to come from AUTO_INCREMENT; the pooled generator must start above them
+ALTER SEQUENCE books_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM books);
+
+CREATE INDEX IF NOT EXISTS idx_books_user_updated ON books (user_id, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_books_user_created ON books (user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_books_user_title ON books (user_id, title, id);
+CREATE INDEX IF NOT EXISTS idx_books_user_author ON books (user_id, author, id);
+
+CREATE TABLE IF NOT EXISTS user_book_stats (
+    user_id BIGINT NOT NULL,
+    books BIGINT NOT NULL,
+    pages_read BIGINT NOT NULL,
+    pages_total BIGINT NOT NULL,
+    books_finished BIGINT NOT NULL,
+    reconciled_at TIMESTAMP(6),
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_author_stats (
+    user_id BIGINT NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    books BIGINT NOT NULL,
+    PRIMARY KEY (user_id, author)
+);
+CREATE INDEX IF NOT EXISTS idx_author_stats_user_books ON user_author_stats (user_id, books, author);
+
+CREATE TABLE IF NOT EXISTS book_tombstones (
+    book_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (book_id)
+);
+CREATE INDEX IF NOT EXISTS idx_tombstones_user_deleted ON book_tombstones (user_id, deleted_at, book_id);
+CREATE INDEX IF NOT EXISTS idx_tombstones_deleted ON book_tombstones (deleted_at);
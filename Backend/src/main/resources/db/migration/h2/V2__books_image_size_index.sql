@@ -0,0 +1 @@
+CREATE INDEX idx_books_user_image ON books (user_id, image_size);
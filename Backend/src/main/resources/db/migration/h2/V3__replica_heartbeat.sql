@@ -0,0 +1,6 @@
+CREATE TABLE replica_heartbeat (
+    id INT NOT NULL,
+    beat_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, 0);
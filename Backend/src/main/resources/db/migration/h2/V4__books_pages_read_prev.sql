@@ -0,0 +1,2 @@
+-- pages_read before the latest progress update, so the stats change is computed from it in SQL
+ALTER TABLE books ADD COLUMN pages_read_prev INT;
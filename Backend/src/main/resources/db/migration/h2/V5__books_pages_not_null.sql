@@ -0,0 +1,8 @@
+-- Books written before the page columns existed may still hold NULLs, which fail every
+-- "? <= pages_total" check (a progress update on them was refused as exceeding the total)
+UPDATE books SET pages_total = 0 WHERE pages_total IS NULL;
+UPDATE books SET pages_read = 0 WHERE pages_read IS NULL;
+ALTER TABLE books ALTER COLUMN pages_total SET DEFAULT 0;
+ALTER TABLE books ALTER COLUMN pages_total SET NOT NULL;
+ALTER TABLE books ALTER COLUMN pages_read SET DEFAULT 0;
+ALTER TABLE books ALTER COLUMN pages_read SET NOT NULL;
@@ -0,0 +1,6 @@
+-- Covers the per-user image quota sum (BookRepository.sumImageSize) without reading book rows.
+-- Built online: InnoDB keeps the table readable and writable while the index is built, and
+-- refuses the statement outright (instead of silently copying the table under a lock) if it
+-- cannot. The only lock taken is a brief metadata lock at the start and end, so keep long
+-- transactions off the table while this runs on a large deployment.
+ALTER TABLE books ADD INDEX idx_books_user_image (user_id, image_size), ALGORITHM=INPLACE, LOCK=NONE;
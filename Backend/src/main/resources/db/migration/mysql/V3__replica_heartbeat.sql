@@ -0,0 +1,7 @@
+-- Written on the primary and read back on each read replica to measure replication lag (ReplicaSet)
+CREATE TABLE replica_heartbeat (
+    id INT NOT NULL,
+    beat_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, 0);
@@ -0,0 +1,5 @@
+-- pages_read before the latest progress update (BookProgressService). The reading stats are
+-- moved by the difference in SQL, so a progress update never reads the book first.
+-- A trailing nullable column is added in place of the table's metadata only: no rebuild,
+-- no copy, and the table stays readable and writable.
+ALTER TABLE books ADD COLUMN pages_read_prev INT, ALGORITHM=INSTANT;
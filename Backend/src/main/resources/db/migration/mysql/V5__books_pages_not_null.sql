@@ -0,0 +1,11 @@
+-- Books written before the page columns existed may still hold NULLs, which fail every
+-- "? <= pages_total" check (a progress update on them was refused as exceeding the total).
+UPDATE books SET pages_total = 0 WHERE pages_total IS NULL;
+UPDATE books SET pages_read = 0 WHERE pages_read IS NULL;
+-- Making a column NOT NULL rebuilds the table in place; with LOCK=NONE it stays readable
+-- and writable meanwhile (InnoDB refuses the statement rather than lock it). Needs a strict
+-- sql_mode, which is the default.
+ALTER TABLE books
+    MODIFY pages_total INT NOT NULL DEFAULT 0,
+    MODIFY pages_read INT NOT NULL DEFAULT 0,
+    ALGORITHM=INPLACE, LOCK=NONE;
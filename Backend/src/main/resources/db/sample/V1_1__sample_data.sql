@@ -0,0 +1,24 @@
+-- Demo accounts and books for the docker compose setup (enabled there through
+-- SPRING_FLYWAY_LOCATIONS). Only fills an empty database.
+-- Password for both accounts: admin123 (BCrypt encoded)
+
+SET @empty = (SELECT COUNT(*) = 0 FROM users);
+
+INSERT INTO users (username, password, email)
+SELECT username, password, email FROM (
+    SELECT 'admin' AS username, '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2' AS password, 'admin@library.com' AS email
+    UNION ALL
+    SELECT 'testuser', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2', 'user@library.com'
+) sample
+WHERE @empty;
+
+INSERT INTO books (id, title, author, description, pages_total, pages_read, created_at, updated_at, version, user_id)
+SELECT sample.id, sample.title, sample.author, sample.description, 0, 0, NOW(6), NOW(6), 0, u.id FROM (
+    SELECT 1 AS id, 'The Great Gatsby' AS title, 'F. Scott Fitzgerald' AS author, 'A classic American novel set in the Jazz Age' AS description, 'admin' AS username
+    UNION ALL SELECT 2, 'To Kill a Mockingbird', 'Harper Lee', 'A gripping tale of racial injustice in the American South', 'admin'
+    UNION ALL SELECT 3, '1984', 'George Orwell', 'A dystopian social science fiction novel', 'admin'
+    UNION ALL SELECT 4, 'Pride and Prejudice', 'Jane Austen', 'A romantic novel of manners', 'testuser'
+    UNION ALL SELECT 5, 'The Catcher in the Rye', 'J.D. Salinger', 'Coming-of-age story set in 1950s New York', 'testuser'
+) sample
+JOIN users u ON u.username = sample.username
+WHERE @empty;
@@ -0,0 +1,149 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags and preconditions of the book endpoints: a book's version as its strong tag, the
+ * list generation as the weak collection tag, 304 for If-None-Match and 412 when If-Match
+ * or the versioned UPDATE finds the book changed. Each test uses its own user.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class BookConditionalRequestsTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@SpyBean
+	private BookStatsService bookStatsService;
+
+	private String userWithBook(long userId, long bookId) {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, ?, 'hash', ?)",
+				userId, "user" + userId, "user" + userId + "@example.com");
+		jdbcTemplate.update("INSERT INTO books (id, title, author, pages_total, pages_read, created_at, updated_at, "
+				+ "version, user_id) VALUES (?, 'Title', 'Author', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, ?)",
+				bookId, userId);
+		return "Bearer " + jwtUtil.generateToken("user" + userId, userId);
+	}
+
+	private static MockHttpServletRequestBuilder put(long bookId, String title) {
+		return multipart("/api/books/{id}", bookId)
+				.with(request -> {
+					request.setMethod("PUT");
+					return request;
+				})
+				.param("title", title)
+				.param("author", "Author");
+	}
+
+	private String title(long bookId) {
+		return jdbcTemplate.queryForObject("SELECT title FROM books WHERE id = ?", String.class, bookId);
+	}
+
+	@Test
+	void ifMatchMismatchIsPreconditionFailed() throws Exception {
+		String auth = userWithBook(201, 201001);
+
+		mockMvc.perform(put(201001, "Changed").header("Authorization", auth).header(HttpHeaders.IF_MATCH, "\"5\""))
+				.andExpect(status().isPreconditionFailed())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+		assertEquals("Title", title(201001));
+
+		mockMvc.perform(put(201001, "Changed").header("Authorization", auth).header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+		assertEquals("Changed", title(201001));
+	}
+
+	@Test
+	void ifNoneMatchOnABookIsNotModified() throws Exception {
+		String auth = userWithBook(202, 202001);
+
+		mockMvc.perform(get("/api/books/202001").header("Authorization", auth).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+		// Proxies that compress responses weaken the tag; it still matches
+		mockMvc.perform(get("/api/books/202001").header("Authorization", auth).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/books/202001").header("Authorization", auth).header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+	}
+
+	@Test
+	void collectionTagIsWeakAndChangesWithWrites() throws Exception {
+		String auth = userWithBook(203, 203001);
+
+		String etag = mockMvc.perform(get("/api/books").header("Authorization", auth))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"c")))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/api/books").header("Authorization", auth).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(patch("/api/books/203001/progress").header("Authorization", auth)
+						.contentType("application/json").content("{\"pagesRead\": 50}"))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/books").header("Authorization", auth).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+	}
+
+	@Test
+	void staleVersionUpdateIsPreconditionFailedAndRollsBackTheStats() throws Exception {
+		String auth = userWithBook(204, 204001);
+		bookStatsService.getStats(204L);
+		Map<String, Object> statsBefore = jdbcTemplate.queryForMap("SELECT * FROM user_book_stats WHERE user_id = 204");
+
+		// Another request commits a change after this one has read the book, before its UPDATE
+		TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+		concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		doAnswer(invocation -> {
+			concurrent.executeWithoutResult(status ->
+					jdbcTemplate.update("UPDATE books SET version = version + 1 WHERE id = 204001"));
+			return invocation.callRealMethod();
+		}).when(bookStatsService).apply(eq(204L), any());
+
+		mockMvc.perform(put(204001, "Lost update").header("Authorization", auth).param("pagesRead", "90"))
+				.andExpect(status().isPreconditionFailed());
+
+		assertEquals("Title", title(204001));
+		assertEquals(statsBefore, jdbcTemplate.queryForMap("SELECT * FROM user_book_stats WHERE user_id = 204"));
+	}
+}
@@ -0,0 +1,67 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The per-user image quota holds even when another upload of the same user is stored
+ * between the early check and the save.
+ */
+@SpringBootTest(properties = {
+		"images.quota.per-user=1KB"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class BookImageQuotaTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@MockBean
+	private ImageStorageService imageStorageService;
+
+	private long books() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE user_id = 501", Long.class);
+	}
+
+	@Test
+	void uploadCommittedMeanwhileCountsAgainstTheQuota() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (501, 'quota501', 'hash', 'quota501@example.com')");
+		String auth = "Bearer " + jwtUtil.generateToken("quota501", 501L);
+		// While this upload is being stored, another one of the same user takes most of the quota
+		when(imageStorageService.store(any())).thenAnswer(invocation -> {
+			jdbcTemplate.update("INSERT INTO books (id, title, author, pages_total, pages_read, image_path, image_size, "
+					+ "created_at, updated_at, version, user_id) VALUES (501100, 'Other', 'Author', 0, 0, 'other.png', 800, "
+					+ "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 501)");
+			return "cover.png";
+		});
+
+		mockMvc.perform(multipart("/api/books")
+						.file(new MockMultipartFile("image", "cover.png", "image/png", new byte[600]))
+						.param("title", "Title")
+						.param("author", "Author")
+						.header("Authorization", auth))
+				.andExpect(status().isPayloadTooLarge());
+
+		assertEquals(1, books());
+	}
+}
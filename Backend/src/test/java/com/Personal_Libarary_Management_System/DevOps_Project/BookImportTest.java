@@ -0,0 +1,120 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Imports written through the real batches: rejected rows leave the rest of their batch
+ * in, errors point at the input line, and new books take ids from books_seq.
+ */
+@SpringBootTest(properties = {
+		// Small enough that a rejected row falls in the middle of a batch
+		"books.import.batch-size=3"
+})
+@ActiveProfiles("test")
+class BookImportTest {
+
+	@Autowired
+	private BookImportService bookImportService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private void user(long id) {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, ?, 'hash', ?)",
+				id, "import" + id, "import" + id + "@example.com");
+	}
+
+	private BookImportProgress importBooks(long userId, BookExportService.Format format, String body) {
+		BookImportProgress progress = bookImportService.start(userId, "test");
+		bookImportService.importBooks(userId, format,
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), progress);
+		return progress;
+	}
+
+	private List<Map<String, Object>> books(long userId) {
+		return jdbcTemplate.queryForList("SELECT title, author, description, pages_total, pages_read FROM books "
+				+ "WHERE user_id = ? ORDER BY id", userId);
+	}
+
+	private static Map<String, Object> book(String title, String author, String description, int pagesTotal, int pagesRead) {
+		Map<String, Object> book = new LinkedHashMap<>();
+		book.put("title", title);
+		book.put("author", author);
+		book.put("description", description);
+		book.put("pages_total", pagesTotal);
+		book.put("pages_read", pagesRead);
+		return book;
+	}
+
+	private static List<String> errors(BookImportProgress progress) {
+		return progress.getErrors().stream().map(e -> e.getLine() + ": " + e.getMessage()).toList();
+	}
+
+	@Test
+	void csvKeepsTheGoodRowsAroundRejectedOnes() {
+		user(801);
+		Set<Long> existingIds = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM books", Long.class));
+
+		BookImportProgress progress = importBooks(801, BookExportService.Format.CSV,
+				"title,author,description,pagesTotal,pagesRead\n"
+						+ "\"Dune, Messiah\",Herbert,\"Line one\nline two\",100,10\n"
+						+ "Emma,Austen,,50,0\n"
+						+ "Too far,Austen,,10,20\n"
+						+ "\"Say \"\"hi\"\"\",Author,,5,5\n"
+						+ "No number,Author,,x,1\n"
+						+ "Last,Author,,1,0\n");
+
+		assertEquals(BookImportProgress.Status.COMPLETED, progress.getStatus());
+		assertEquals(6, progress.getProcessed());
+		assertEquals(4, progress.getImported());
+		// Lines of the input, counting the quoted newline
+		assertEquals(List.of("5: pagesRead cannot exceed pagesTotal", "7: pagesTotal and pagesRead must be numbers"),
+				errors(progress));
+		assertEquals(List.of(
+				book("Dune, Messiah", "Herbert", "Line one\nline two", 100, 10),
+				book("Emma", "Austen", null, 50, 0),
+				book("Say \"hi\"", "Author", null, 5, 5),
+				book("Last", "Author", null, 1, 0)), books(801));
+
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM books WHERE user_id = 801", Long.class);
+		for (Long id : ids) {
+			assertFalse(existingIds.contains(id), "imported book reused id " + id);
+		}
+	}
+
+	@Test
+	void ndjsonRejectsBadLinesOnly() {
+		user(802);
+
+		BookImportProgress progress = importBooks(802, BookExportService.Format.NDJSON,
+				"{\"title\":\"Solaris\",\"author\":\"Stanisław Lem\",\"pagesTotal\":200,\"pagesRead\":20}\n"
+						+ "not json\n"
+						+ "\n"
+						+ "{\"title\":\"\",\"author\":\"Nobody\"}\n"
+						+ "{\"title\":\"Ficciones\",\"author\":\"Borges\",\"description\":\"Cuentos\",\"id\":802999,\"version\":9}\n");
+
+		assertEquals(BookImportProgress.Status.COMPLETED, progress.getStatus());
+		assertEquals(2, progress.getImported());
+		assertEquals(List.of("2: Invalid JSON", "4: title is required"), errors(progress));
+		assertEquals(List.of(
+				book("Solaris", "Stanisław Lem", null, 200, 20),
+				book("Ficciones", "Borges", "Cuentos", 0, 0)), books(802));
+		// The id in the input is ignored
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE id = 802999", Long.class));
+	}
+}
@@ -0,0 +1,71 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class BookJsonWriterTest {
+
+	// Configured like the application's mapper (ISO dates, not timestamps)
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private BookJsonWriter writer() {
+		BookJsonWriter writer = new BookJsonWriter();
+		ReflectionTestUtils.setField(writer, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(writer, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(writer, "maxSize", DataSize.ofMegabytes(1));
+		writer.init();
+		return writer;
+	}
+
+	private static BookDto book(long id, String title, long version) {
+		BookDto book = new BookDto(id, title, "Ürsula K. Le Guin", null, null,
+				LocalDateTime.of(2024, 2, 29, 23, 59, 1, 123_456_000), LocalDateTime.of(2025, 1, 1, 0, 0),
+				300, null);
+		book.setVersion(version);
+		return book;
+	}
+
+	private void assertSameAsJackson(BookJsonWriter writer, List<BookDto> books) throws Exception {
+		assertArrayEquals(objectMapper.writeValueAsBytes(books), writer.toJson(books));
+	}
+
+	@Test
+	void writesWhatJacksonWrites() throws Exception {
+		BookJsonWriter writer = writer();
+		BookDto withImage = book(3, "Tales \"from\" Earthsea\n", 7);
+		withImage.setDescription("日本語の説明 – with a dash and an emoji 📚");
+		withImage.setImagePath("cover.png");
+		withImage.setThumbnailUrls(Map.of("small", "/api/images/cover.png?w=200"));
+		BookDto unsaved = new BookDto();
+
+		assertSameAsJackson(writer, List.of());
+		assertSameAsJackson(writer, List.of(book(1, "A Wizard of Earthsea", 0)));
+		List<BookDto> books = List.of(book(1, "A Wizard of Earthsea", 0), book(2, "The Tombs of Atuan", 3), withImage, unsaved);
+		assertSameAsJackson(writer, books);
+		// Again, now from the cached fragments
+		assertSameAsJackson(writer, books);
+	}
+
+	@Test
+	void newVersionReplacesTheCachedFragment() throws Exception {
+		BookJsonWriter writer = writer();
+		assertSameAsJackson(writer, List.of(book(1, "Old title", 4)));
+
+		// The same version is served from the cache, whatever the DTO now says
+		assertArrayEquals(objectMapper.writeValueAsBytes(List.of(book(1, "Old title", 4))),
+				writer.toJson(List.of(book(1, "New title", 4))));
+
+		assertSameAsJackson(writer, List.of(book(1, "New title", 5)));
+		assertSameAsJackson(writer, List.of(book(1, "New title", 5)));
+	}
+}
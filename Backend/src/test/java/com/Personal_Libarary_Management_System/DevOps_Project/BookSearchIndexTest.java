@@ -0,0 +1,81 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTest {
+
+	private BookSearchIndex indexWith(BookSearchDocument... docs) {
+		BookSearchIndex index = new BookSearchIndex();
+		for (BookSearchDocument doc : docs) {
+			index.index(doc);
+		}
+		return index;
+	}
+
+	@Test
+	void matchesPrefixesCaseAndAccentInsensitively() {
+		BookSearchIndex index = indexWith(
+				new BookSearchDocument(1L, 1L, "The Great Gatsby", "F. Scott Fitzgerald", null),
+				new BookSearchDocument(2L, 1L, "Les Misérables", "Victor Hugo", null));
+
+		assertEquals(List.of(1L), index.search(1L, "GREAT gat", null, null, null, null, 10).getIds());
+		assertEquals(List.of(2L), index.search(1L, "miserab", null, null, null, null, 10).getIds());
+		assertEquals(List.of(1L), index.search(1L, "great", "fitz", null, null, null, 10).getIds());
+		assertTrue(index.search(1L, "great", "hugo", null, null, null, 10).getIds().isEmpty());
+	}
+
+	@Test
+	void isScopedToTheUser() {
+		BookSearchIndex index = indexWith(
+				new BookSearchDocument(1L, 1L, "Dune", "Frank Herbert", null),
+				new BookSearchDocument(2L, 2L, "Dune Messiah", "Frank Herbert", null));
+
+		assertEquals(List.of(1L), index.search(1L, "dune", null, null, null, null, 10).getIds());
+		assertEquals(List.of(2L), index.search(2L, "dune", null, null, null, null, 10).getIds());
+	}
+
+	@Test
+	void ranksTitleAboveDescriptionAndExactAbovePrefix() {
+		BookSearchIndex index = indexWith(
+				new BookSearchDocument(1L, 1L, "Notes", "Anon", "all about the ocean"),
+				new BookSearchDocument(2L, 1L, "Oceanic", "Anon", null),
+				new BookSearchDocument(3L, 1L, "Ocean", "Anon", null));
+
+		assertEquals(List.of(3L, 2L, 1L), index.search(1L, null, null, "ocean", null, null, 10).getIds());
+	}
+
+	@Test
+	void pagesAfterTheLastHit() {
+		BookSearchIndex index = indexWith(
+				new BookSearchDocument(1L, 1L, "Ocean", "Anon", null),
+				new BookSearchDocument(2L, 1L, "Ocean", "Anon", null),
+				new BookSearchDocument(3L, 1L, "Oceanic", "Anon", null));
+
+		BookSearchIndex.Hits first = index.search(1L, "ocean", null, null, null, null, 2);
+		assertEquals(List.of(2L, 1L), first.getIds());
+		assertEquals(3, first.getTotal());
+		assertTrue(first.hasMore());
+
+		BookSearchIndex.Hits second = index.search(1L, "ocean", null, null, first.getScores().get(1), 1L, 2);
+		assertEquals(List.of(3L), second.getIds());
+		assertFalse(second.hasMore());
+	}
+
+	@Test
+	void reflectsUpdatesAndDeletes() {
+		BookSearchIndex index = indexWith(new BookSearchDocument(1L, 1L, "Emma", "Jane Austen", null));
+
+		index.index(new BookSearchDocument(1L, 1L, "Persuasion", "Jane Austen", null));
+		assertTrue(index.search(1L, "emma", null, null, null, null, 10).getIds().isEmpty());
+		assertEquals(List.of(1L), index.search(1L, "persuasion", null, null, null, null, 10).getIds());
+
+		index.remove(1L, 1L);
+		assertTrue(index.search(1L, null, "austen", null, null, null, 10).getIds().isEmpty());
+	}
+}
@@ -0,0 +1,158 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The running totals in user_book_stats and user_author_stats after each kind of book
+ * write, compared with what a fresh reconcile rebuilds from the books table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class BookStatsTest {
+
+	private static final long USER = 701;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private BookStatsService bookStatsService;
+
+	private String auth;
+
+	private long add(String title, String author, int pagesTotal, int pagesRead) throws Exception {
+		String body = mockMvc.perform(multipart("/api/books")
+						.param("title", title)
+						.param("author", author)
+						.param("pagesTotal", String.valueOf(pagesTotal))
+						.param("pagesRead", String.valueOf(pagesRead))
+						.header("Authorization", auth))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("id").asLong();
+	}
+
+	private void progress(String json) throws Exception {
+		mockMvc.perform(patch("/api/books/progress").header("Authorization", auth)
+						.contentType("application/json").content(json))
+				.andExpect(status().isOk());
+	}
+
+	private Map<String, Object> totals() {
+		return jdbcTemplate.queryForMap(
+				"SELECT books, pages_read, pages_total, books_finished FROM user_book_stats WHERE user_id = ?", USER);
+	}
+
+	private List<Map<String, Object>> authors() {
+		return jdbcTemplate.queryForList(
+				"SELECT author, books FROM user_author_stats WHERE user_id = ? ORDER BY author", USER);
+	}
+
+	private void assertTotals(long books, long pagesRead, long pagesTotal, long finished) {
+		assertEquals(List.of(books, pagesRead, pagesTotal, finished), List.copyOf(totals().values()));
+	}
+
+	// The running totals must be exactly what reconciling rebuilds from the books
+	private void assertMatchesReconcile() {
+		Map<String, Object> totals = totals();
+		List<Map<String, Object>> authors = authors();
+		assertFalse(bookStatsService.reconcile(USER), "reconcile had to correct the running totals");
+		assertEquals(totals, totals());
+		assertEquals(authors, authors());
+	}
+
+	@Test
+	void runningTotalsFollowEveryKindOfWrite() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, 'stats701', 'hash', 'stats701@example.com')", USER);
+		auth = "Bearer " + jwtUtil.generateToken("stats701", USER);
+		bookStatsService.getStats(USER);
+
+		long dune = add("Dune", "Herbert", 100, 100);
+		long emma = add("Emma", "Austen", 200, 50);
+		long persuasion = add("Persuasion", "Austen", 300, 0);
+		assertTotals(3, 150, 600, 1);
+		assertMatchesReconcile();
+
+		// Author change and a finished book
+		mockMvc.perform(multipart("/api/books/{id}", emma)
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						})
+						.param("title", "Emma")
+						.param("author", "Jane Austen")
+						.param("pagesRead", "200")
+						.header("Authorization", auth))
+				.andExpect(status().isOk());
+		assertTotals(3, 300, 600, 2);
+		assertMatchesReconcile();
+
+		mockMvc.perform(delete("/api/books/{id}", dune).header("Authorization", auth))
+				.andExpect(status().isOk());
+		assertTotals(2, 200, 500, 1);
+		assertMatchesReconcile();
+
+		mockMvc.perform(patch("/api/books/{id}/progress", persuasion).header("Authorization", auth)
+						.contentType("application/json").content("{\"pagesRead\": 300}"))
+				.andExpect(status().isNoContent());
+		assertTotals(2, 500, 500, 2);
+		assertMatchesReconcile();
+
+		// Repeated ids keep the last value; the unknown id changes nothing
+		mockMvc.perform(patch("/api/books/progress").header("Authorization", auth)
+						.contentType("application/json").content("[{\"id\": " + emma + ", \"pagesRead\": 10}, "
+								+ "{\"id\": " + persuasion + ", \"pagesRead\": 20}, "
+								+ "{\"id\": 701999, \"pagesRead\": 5}, "
+								+ "{\"id\": " + emma + ", \"pagesRead\": 30}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.updated").value(2))
+				.andExpect(jsonPath("$.failed[0].id").value(701999))
+				.andExpect(jsonPath("$.failed[0].message").value("Book not found"));
+		assertTotals(2, 50, 500, 0);
+		assertMatchesReconcile();
+		// Nor does a value over the book's total
+		progress("[{\"id\": " + emma + ", \"pagesRead\": 201}]");
+		assertTotals(2, 50, 500, 0);
+
+		mockMvc.perform(post("/api/books/import").header("Authorization", auth)
+						.contentType("text/csv")
+						.content("title,author,pagesTotal,pagesRead\n"
+								+ "Mansfield Park,Jane Austen,400,400\n"
+								+ "Children of Dune,Herbert,10,5\n"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(2));
+		assertTotals(4, 455, 910, 1);
+		assertMatchesReconcile();
+		assertEquals(List.of(Map.of("author", "Austen", "books", 1L), Map.of("author", "Herbert", "books", 1L),
+				Map.of("author", "Jane Austen", "books", 2L)), authors());
+	}
+}
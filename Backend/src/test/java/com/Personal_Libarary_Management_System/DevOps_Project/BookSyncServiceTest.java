@@ -0,0 +1,134 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The changes feed against an H2 database: paging through books and tombstones in
+ * (time, id) order, expired cursors, and changes that commit late inside the lag window.
+ * Each test uses its own user.
+ */
+@SpringBootTest(properties = {
+		"books.sync.lag=2s",
+		"books.sync.tombstone-retention=30d"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class BookSyncServiceTest {
+
+	// Well inside the tombstone retention and well behind the lag window
+	private static final LocalDateTime T0 = LocalDateTime.now().minusDays(1).withNano(0);
+
+	@Autowired
+	private BookSyncService bookSyncService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private void user(long userId) {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, ?, 'hash', ?)",
+				userId, "sync" + userId, "sync" + userId + "@example.com");
+	}
+
+	private void book(long userId, long id, LocalDateTime updatedAt) {
+		jdbcTemplate.update("INSERT INTO books (id, title, author, pages_total, pages_read, created_at, updated_at, "
+				+ "version, user_id) VALUES (?, ?, 'Author', 100, 0, ?, ?, 0, ?)",
+				id, "Book " + id, Timestamp.valueOf(updatedAt), Timestamp.valueOf(updatedAt), userId);
+	}
+
+	private void tombstone(long userId, long bookId, LocalDateTime deletedAt) {
+		jdbcTemplate.update("INSERT INTO book_tombstones (book_id, user_id, deleted_at) VALUES (?, ?, ?)",
+				bookId, userId, Timestamp.valueOf(deletedAt));
+	}
+
+	private static List<Long> ids(BookChanges changes) {
+		List<Long> ids = new ArrayList<>();
+		changes.getChanged().forEach(book -> ids.add(book.getId()));
+		return ids;
+	}
+
+	@Test
+	void pagesThroughBooksAndTombstonesInOrder() {
+		user(301);
+		book(301, 301101, T0.plusMinutes(1));
+		book(301, 301102, T0.plusMinutes(2));
+		book(301, 301103, T0.plusMinutes(4));
+		BookChanges first = bookSyncService.changesSince(301L, null, 2);
+		assertEquals(List.of(301101L, 301102L), ids(first));
+		assertTrue(first.isHasMore());
+
+		// Deleted after the first page was read; the deletion sorts between 301102 and 301103
+		tombstone(301, 301150, T0.plusMinutes(3));
+		BookChanges second = bookSyncService.changesSince(301L, first.getCursor(), 2);
+		assertEquals(List.of(301103L), ids(second));
+		assertEquals(List.of(301150L), second.getDeleted());
+		assertFalse(second.isHasMore());
+
+		BookChanges third = bookSyncService.changesSince(301L, second.getCursor(), 2);
+		assertTrue(third.getChanged().isEmpty());
+		assertTrue(third.getDeleted().isEmpty());
+		assertFalse(third.isHasMore());
+	}
+
+	@Test
+	void lateCommitInsideTheLagWindowIsNotSkipped() throws Exception {
+		user(302);
+		LocalDateTime now = LocalDateTime.now();
+		book(302, 302201, now.minusMinutes(1));
+		book(302, 302202, now.minus(Duration.ofMillis(500)));
+		book(302, 302203, now.minus(Duration.ofMillis(200)));
+
+		// Only the settled book is sent, and the cursor stays behind the lag window
+		BookChanges first = bookSyncService.changesSince(302L, null, 1);
+		assertEquals(List.of(302201L), ids(first));
+		assertFalse(first.isHasMore());
+
+		// Stamped before 302202 but committed after the first call
+		book(302, 302204, now.minus(Duration.ofMillis(700)));
+		Thread.sleep(2500);
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = first.getCursor();
+		BookChanges page;
+		do {
+			page = bookSyncService.changesSince(302L, cursor, 1);
+			seen.addAll(ids(page));
+			cursor = page.getCursor();
+		} while (page.isHasMore());
+		assertEquals(List.of(302204L, 302202L, 302203L), seen);
+	}
+
+	@Test
+	void expiredCursorIsGone() throws Exception {
+		user(303);
+		String expired = new BookCursor(BookSyncService.CURSOR_KEY, LocalDateTime.now().minusDays(31), 0L).encode();
+
+		mockMvc.perform(get("/api/books/changes")
+						.param("since", expired)
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("sync303", 303L)))
+				.andExpect(status().isGone());
+	}
+}
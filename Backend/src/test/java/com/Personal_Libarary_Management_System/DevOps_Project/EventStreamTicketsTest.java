@@ -0,0 +1,65 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The event stream takes a ticket in the URL instead of the bearer token: one stream per
+ * ticket, and a ticket is no bearer token.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class EventStreamTicketsTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String ticket() throws Exception {
+		String body = mockMvc.perform(post("/api/books/events/ticket")
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("reader", 1L)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("ticket").asText();
+	}
+
+	@Test
+	void ticketOpensOneStream() throws Exception {
+		String ticket = ticket();
+
+		mockMvc.perform(get("/api/books/events").param("ticket", ticket))
+				.andExpect(request().asyncStarted());
+		mockMvc.perform(get("/api/books/events").param("ticket", ticket))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void ticketIsNotABearerToken() throws Exception {
+		mockMvc.perform(get("/api/books/changes").header("Authorization", "Bearer " + ticket()))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void tokenIsNotATicket() throws Exception {
+		mockMvc.perform(get("/api/books/events").param("ticket", jwtUtil.generateToken("reader", 1L)))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/books/events/ticket"))
+				.andExpect(status().isUnauthorized());
+	}
+}
@@ -0,0 +1,82 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileSenderTest {
+
+	@TempDir
+	Path dir;
+
+	private FileSender sender(Path file) {
+		BlobStore store = new BlobStore() {
+			@Override
+			public BlobInfo stat(String key) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void put(String key, InputStreamSource content, long length, String contentType) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Path localFile(String key) {
+				return file;
+			}
+
+			@Override
+			public void delete(String key) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void touch(String key) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void walk(Visitor visitor) {
+				throw new UnsupportedOperationException();
+			}
+		};
+		return new FileSender(store, new SimpleMeterRegistry());
+	}
+
+	private static void send(FileSender sender, long cachedLength, MockHttpServletResponse response) throws IOException {
+		ImageFileCache.FileInfo info = new ImageFileCache.FileInfo("cover.png", cachedLength, 0L, "image/png");
+		sender.send(new MockHttpServletRequest("GET", "/api/images/cover.png"), response, info,
+				CacheControl.maxAge(Duration.ofDays(1)));
+	}
+
+	@Test
+	void sendsTheWholeFile() throws IOException {
+		Path file = Files.write(dir.resolve("cover.png"), new byte[]{1, 2, 3, 4});
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		send(sender(file), 4, response);
+
+		assertEquals(4, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void fileShorterThanItsCachedLengthFailsTheResponse() throws IOException {
+		// Truncated or replaced after its metadata was cached
+		Path file = Files.write(dir.resolve("cover.png"), new byte[]{1, 2, 3, 4});
+
+		assertThrows(IOException.class, () -> send(sender(file), 10, new MockHttpServletResponse()));
+	}
+}
@@ -0,0 +1,150 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageGarbageCollectorTest {
+
+	private static final long OLD = System.currentTimeMillis() - Duration.ofDays(2).toMillis();
+
+	/**
+	 * Blobs in a map; a key in touchedAfterListing is listed as old but stats as just
+	 * written, like a cover an upload reused while the sweep was running.
+	 */
+	private static final class MapBlobStore implements BlobStore {
+		final Map<String, BlobInfo> blobs = new TreeMap<>();
+		final Set<String> touchedAfterListing = new TreeSet<>();
+
+		@Override
+		public BlobInfo stat(String key) {
+			BlobInfo info = blobs.get(key);
+			if (info != null && touchedAfterListing.contains(key)) {
+				return new BlobInfo(info.getLength(), System.currentTimeMillis());
+			}
+			return info;
+		}
+
+		@Override
+		public void put(String key, InputStreamSource content, long length, String contentType) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Path localFile(String key) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void delete(String key) {
+			blobs.remove(key);
+		}
+
+		@Override
+		public void touch(String key) {
+			blobs.put(key, new BlobInfo(blobs.get(key).getLength(), System.currentTimeMillis()));
+		}
+
+		@Override
+		public void walk(Visitor visitor) throws IOException {
+			for (String key : new ArrayList<>(blobs.keySet())) {
+				visitor.visit(key, blobs.get(key));
+			}
+		}
+	}
+
+	private ImageGarbageCollector collector(MapBlobStore store, boolean dryRun, String... imagePaths) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:image-gc-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE books (id BIGINT PRIMARY KEY, image_path VARCHAR(255))");
+		for (int i = 0; i < imagePaths.length; i++) {
+			jdbcTemplate.update("INSERT INTO books (id, image_path) VALUES (?, ?)", i + 1, imagePaths[i]);
+		}
+
+		ImageFileCache imageFileCache = new ImageFileCache();
+		ReflectionTestUtils.setField(imageFileCache, "blobStore", store);
+		ImageGarbageCollector collector = new ImageGarbageCollector();
+		ReflectionTestUtils.setField(collector, "blobStore", store);
+		ReflectionTestUtils.setField(collector, "imageFileCache", imageFileCache);
+		ReflectionTestUtils.setField(collector, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(collector, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(collector, "gracePeriod", Duration.ofDays(1));
+		ReflectionTestUtils.setField(collector, "maxIoPerSecond", 1_000_000);
+		// Smaller than the number of books, so the mark reads several batches
+		ReflectionTestUtils.setField(collector, "batchSize", 2);
+		ReflectionTestUtils.setField(collector, "dryRun", dryRun);
+		collector.init();
+		return collector;
+	}
+
+	@Test
+	void coverNameDropsDirectoriesAndExtension() {
+		assertEquals("abc", ImageGarbageCollector.coverName("abc.png"));
+		assertEquals("abc", ImageGarbageCollector.coverName("thumbs/64/abc.jpg"));
+		assertEquals("abc", ImageGarbageCollector.coverName("uploads/abc.png"));
+		assertEquals("abc", ImageGarbageCollector.coverName("abc"));
+		assertEquals(".hidden", ImageGarbageCollector.coverName("thumbs/.hidden"));
+	}
+
+	@Test
+	void fingerprintsAreSortedAndDeduplicated() {
+		ImageGarbageCollector.Fingerprints fingerprints = new ImageGarbageCollector.Fingerprints();
+		// More than the initial capacity, each added twice and out of order
+		for (long i = 3000; i > 0; i--) {
+			fingerprints.add(i * 7);
+			fingerprints.add(i * 7);
+		}
+		fingerprints.seal();
+
+		assertEquals(3000, fingerprints.size());
+		assertTrue(fingerprints.contains(7));
+		assertTrue(fingerprints.contains(21000));
+		assertFalse(fingerprints.contains(8));
+		assertFalse(fingerprints.contains(0));
+	}
+
+	@Test
+	void deletesOnlyOldUnreferencedImages() {
+		MapBlobStore store = new MapBlobStore();
+		store.blobs.put("kept.png", new BlobStore.BlobInfo(10, OLD));
+		store.blobs.put("thumbs/64/kept.jpg", new BlobStore.BlobInfo(1, OLD));
+		store.blobs.put("legacy.png", new BlobStore.BlobInfo(10, OLD));
+		store.blobs.put("orphan.png", new BlobStore.BlobInfo(10, OLD));
+		store.blobs.put("thumbs/64/orphan.jpg", new BlobStore.BlobInfo(1, OLD));
+		store.blobs.put("recent.png", new BlobStore.BlobInfo(10, System.currentTimeMillis()));
+		store.blobs.put("reused.png", new BlobStore.BlobInfo(10, OLD));
+		store.touchedAfterListing.add("reused.png");
+
+		collector(store, false, "kept.png", null, "uploads/legacy.png").collect();
+
+		assertEquals(Set.of("kept.png", "thumbs/64/kept.jpg", "legacy.png", "recent.png", "reused.png"),
+				store.blobs.keySet());
+	}
+
+	@Test
+	void dryRunDeletesNothing() {
+		MapBlobStore store = new MapBlobStore();
+		store.blobs.put("orphan.png", new BlobStore.BlobInfo(10, OLD));
+
+		collector(store, true).collect();
+
+		assertEquals(Set.of("orphan.png"), store.blobs.keySet());
+	}
+}
@@ -0,0 +1,174 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks every page of every listing order, with many rows sharing a sort value, and
+ * checks the pages add up to exactly the full ordering by (value, id).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class KeysetPagingTest {
+
+	private static final long USER = 901;
+	private static final int BOOKS = 25;
+	// No larger than any group of equal sort values, so pages start and end inside them
+	private static final int LIMIT = 4;
+
+	private static final Map<BookSort, String> COLUMNS = Map.of(
+			BookSort.UPDATED, "updated_at",
+			BookSort.CREATED, "created_at",
+			BookSort.TITLE, "title",
+			BookSort.AUTHOR, "author");
+
+	@Autowired
+	private BookQueryService bookQueryService;
+
+	@Autowired
+	private BookSearchIndex searchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeAll
+	void seed() {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, 'keyset901', 'hash', 'keyset901@example.com')", USER);
+		LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+		List<Object[]> books = new ArrayList<>();
+		for (int n = 1; n <= BOOKS; n++) {
+			books.add(new Object[]{USER * 1000 + n, "Title " + n % 5, "Author " + n % 3,
+					n % 2 == 0 ? "dragon" : "dragons", Timestamp.valueOf(base.plusMinutes(n % 4)),
+					Timestamp.valueOf(base.plusSeconds(n % 6)), USER});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, description, pages_total, pages_read, "
+				+ "created_at, updated_at, version, user_id) VALUES (?, ?, ?, ?, 0, 0, ?, ?, 0, ?)", books);
+		// Waits for the startup rebuild, then indexes the rows inserted above as well
+		searchIndex.rebuild();
+	}
+
+	private List<Long> expected(BookSort sort, boolean ascending) {
+		String direction = ascending ? "ASC" : "DESC";
+		return jdbcTemplate.queryForList("SELECT id FROM books WHERE user_id = ? ORDER BY " + COLUMNS.get(sort)
+				+ " " + direction + ", id " + direction, Long.class, USER);
+	}
+
+	private List<Long> walk(BookSort sort, Sort.Direction direction, String cursor) {
+		List<Long> ids = new ArrayList<>();
+		do {
+			BookPage page = bookQueryService.listBooks(USER, sort, direction, cursor, LIMIT, false);
+			page.getItems().forEach(book -> ids.add(book.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return ids;
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void everyOrderPagesThroughAllBooksOnce() {
+		for (BookSort sort : BookSort.values()) {
+			for (Sort.Direction direction : Sort.Direction.values()) {
+				List<Long> expected = expected(sort, direction.isAscending());
+				assertEquals(BOOKS, expected.size());
+				List<Long> ids = walk(sort, direction, null);
+				assertEquals(expected, ids, sort + " " + direction);
+				assertEquals(BOOKS, new HashSet<>(ids).size());
+			}
+		}
+	}
+
+	@Test
+	void cursorContinuesInTheOtherDirection() {
+		for (BookSort sort : BookSort.values()) {
+			BookPage first = bookQueryService.listBooks(USER, sort, Sort.Direction.ASC, null, LIMIT, false);
+			assertNotNull(first.getNextCursor());
+			Long last = first.getItems().get(LIMIT - 1).getId();
+
+			// Everything before the cursor row, walking back towards the start
+			List<Long> descending = expected(sort, false);
+			List<Long> before = descending.subList(descending.indexOf(last) + 1, descending.size());
+			assertEquals(before, walk(sort, Sort.Direction.DESC, first.getNextCursor()), sort.toString());
+		}
+	}
+
+	@Test
+	void searchPagesByScoreThenId() {
+		BookPage all = bookQueryService.searchBooks(USER, null, null, "dragon", BookSort.UPDATED, null, null, 100, true);
+		assertEquals(BOOKS, all.getItems().size());
+		assertEquals((long) BOOKS, all.getTotal());
+		// Exact and prefix matches score differently, so both parts of the cursor decide where a page starts
+		BookSearchIndex.Hits hits = searchIndex.search(USER, null, null, "dragon", null, null, 100);
+		assertEquals(2, new HashSet<>(hits.getScores()).size());
+		assertNotEquals(hits.getScores().get(0), hits.getScores().get(BOOKS - 1));
+
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			BookPage page = bookQueryService.searchBooks(USER, null, null, "dragon", BookSort.UPDATED, null, cursor, LIMIT, false);
+			page.getItems().forEach(book -> ids.add(book.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		assertEquals(hits.getIds(), ids);
+		assertEquals(all.getItems().stream().map(BookDto::getId).toList(), ids);
+	}
+
+	@Test
+	void cursorOfAnotherOrderIsRejected() {
+		String titleCursor = bookQueryService.listBooks(USER, BookSort.TITLE, null, null, LIMIT, false).getNextCursor();
+		assertThrows(IllegalArgumentException.class,
+				() -> bookQueryService.listBooks(USER, BookSort.AUTHOR, null, titleCursor, LIMIT, false));
+	}
+
+	@Test
+	void malformedCursorIsBadRequest() throws Exception {
+		String auth = "Bearer " + jwtUtil.generateToken("keyset901", USER);
+		List<String> cursors = List.of(
+				"not base64!",
+				encode("title|no id"),
+				encode("title|Title 1|not a number"),
+				encode("updatedAt|yesterday|" + (USER * 1000 + 1)),
+				encode("author|Author 1|" + (USER * 1000 + 1)));
+		for (String cursor : cursors) {
+			mockMvc.perform(get("/api/books").param("cursor", cursor).header("Authorization", auth))
+					.andExpect(status().isBadRequest());
+		}
+		mockMvc.perform(get("/api/books/search").param("q", "dragon").param("cursor", encode("score|high|1"))
+						.header("Authorization", auth))
+				.andExpect(status().isBadRequest());
+	}
+}
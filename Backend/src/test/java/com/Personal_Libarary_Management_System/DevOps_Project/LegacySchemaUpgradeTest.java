@@ -0,0 +1,82 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application on a database created by the first db-init.sql: Flyway must
+ * baseline it below V1 and bring it up to the schema ddl-auto=validate expects.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + LegacySchemaUpgradeTest.URL
+})
+@ActiveProfiles("test")
+class LegacySchemaUpgradeTest {
+
+	static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookQueryService bookQueryService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Runs before the context, so the legacy tables exist when Flyway first looks
+	@DynamicPropertySource
+	static void legacySchema(DynamicPropertyRegistry registry) {
+		new ResourceDatabasePopulator(new ClassPathResource("db/legacy-db-init.sql"))
+				.execute(new DriverManagerDataSource(URL, "sa", ""));
+		// Rows written before the page columns had defaults
+		new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""))
+				.update("UPDATE books SET pages_total = NULL, pages_read = NULL WHERE id = 2");
+	}
+
+	@Test
+	void legacyDatabaseIsUpgraded() {
+		List<String> versions = jdbcTemplate.queryForList(
+				"SELECT version FROM flyway_schema_history WHERE success AND version IS NOT NULL ORDER BY installed_rank", String.class);
+		assertEquals(List.of("0", "1", "2", "3", "4", "5"), versions);
+
+		BookPage page = bookQueryService.listBooks(1L, BookSort.TITLE, null, null, 10, true);
+		assertEquals(3L, page.getTotal());
+		assertEquals(List.of(0, 0), List.copyOf(jdbcTemplate.queryForMap(
+				"SELECT pages_total, pages_read FROM books WHERE id = 2").values()));
+
+		// New ids come from the pooled generator and must not collide with the old AUTO_INCREMENT ones
+		Book saved = transactionTemplate.execute(status -> {
+			Book book = new Book();
+			book.setTitle("Added after the upgrade");
+			book.setAuthor("Author");
+			book.setDescription("x".repeat(1000));
+			book.setPagesTotal(10);
+			book.setPagesRead(0);
+			book.setUser(userRepository.getReferenceById(1L));
+			return bookRepository.save(book);
+		});
+		assertTrue(saved.getId() > 5, "id " + saved.getId() + " reuses a legacy id");
+		assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM books WHERE id = 1", Long.class));
+	}
+}
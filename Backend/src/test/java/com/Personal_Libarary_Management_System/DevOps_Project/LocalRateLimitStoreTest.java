@@ -0,0 +1,65 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimitStoreTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final LocalRateLimitStore store = new LocalRateLimitStore();
+	private final RateLimit limit = new RateLimit("test", 3, Duration.ofSeconds(3));
+
+	@Test
+	void allowsABurstThenRefusesUntilAPermitIsBack() {
+		long now = 1_000 * SECOND;
+		assertEquals(2, store.tryAcquire("a", limit, now).getRemaining());
+		assertEquals(1, store.tryAcquire("a", limit, now).getRemaining());
+		assertEquals(0, store.tryAcquire("a", limit, now).getRemaining());
+
+		RateLimitStore.Decision refused = store.tryAcquire("a", limit, now);
+		assertFalse(refused.isAllowed());
+		assertEquals(SECOND, refused.getRetryAfterNanos());
+		assertEquals(3 * SECOND, refused.getResetNanos());
+
+		RateLimitStore.Decision later = store.tryAcquire("a", limit, now + SECOND);
+		assertTrue(later.isAllowed());
+		assertEquals(0, later.getRemaining());
+	}
+
+	@Test
+	void keepsClientsApart() {
+		long now = 1_000 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			store.tryAcquire("a", limit, now);
+		}
+		assertFalse(store.tryAcquire("a", limit, now).isAllowed());
+		assertTrue(store.tryAcquire("b", limit, now).isAllowed());
+	}
+
+	@Test
+	void sweepsOnlyFullBuckets() {
+		long now = 1_000 * SECOND;
+		store.tryAcquire("a", limit, now);
+		store.tryAcquire("b", limit, now + 2 * SECOND);
+
+		store.sweep(now + 2 * SECOND);
+		assertEquals(1, store.size());
+		assertEquals(1, store.tryAcquire("b", limit, now + 2 * SECOND).getRemaining());
+	}
+
+	@Test
+	void parsesLimits() {
+		RateLimit parsed = RateLimit.parse("search", "60/1m");
+		assertEquals(60, parsed.getPermits());
+		assertEquals(SECOND, parsed.getIntervalNanos());
+		assertNull(RateLimit.parse("search", " "));
+	}
+}
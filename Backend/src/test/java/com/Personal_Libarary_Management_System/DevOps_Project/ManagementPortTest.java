@@ -0,0 +1,51 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Metrics are served on the management port only, never on the public API port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"management.server.port=0"
+})
+@ActiveProfiles("test")
+// Metrics export is off in tests unless asked for
+@AutoConfigureObservability
+class ManagementPortTest {
+
+	@LocalServerPort
+	private int port;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void prometheusIsOnlyOnTheManagementPort() {
+		assertNotEquals(port, managementPort);
+
+		ResponseEntity<String> metrics = restTemplate.getForEntity(
+				"http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.OK, metrics.getStatusCode());
+		assertTrue(metrics.getBody().contains("jvm_memory_used_bytes"));
+
+		ResponseEntity<String> onApiPort = restTemplate.getForEntity(
+				"http://localhost:" + port + "/actuator/prometheus", String.class);
+		assertEquals(HttpStatus.NOT_FOUND, onApiPort.getStatusCode());
+	}
+}
@@ -0,0 +1,63 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+	private static PasswordHasher hasher(int workers, int queueCapacity) {
+		PasswordHasher hasher = new PasswordHasher();
+		ReflectionTestUtils.setField(hasher, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(hasher, "strength", 4);
+		ReflectionTestUtils.setField(hasher, "workers", workers);
+		ReflectionTestUtils.setField(hasher, "queueCapacity", queueCapacity);
+		hasher.init();
+		return hasher;
+	}
+
+	@Test
+	void fullQueueFailsFastWithARetryEstimate() throws Exception {
+		PasswordHasher hasher = hasher(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch working = new CountDownLatch(1);
+		CountDownLatch drained = new CountDownLatch(1);
+		try {
+			// Keeps the only worker busy until released
+			hasher.upgradeInBackground("first", hash -> {
+				working.countDown();
+				awaitQuietly(release);
+			});
+			assertTrue(working.await(10, TimeUnit.SECONDS));
+			// Fills the queue
+			hasher.upgradeInBackground("second", hash -> drained.countDown());
+
+			PasswordHasher.BusyException busy = assertThrows(PasswordHasher.BusyException.class,
+					() -> hasher.encode("third"));
+			assertTrue(busy.getRetryAfterSeconds() > 0);
+			// Background upgrades are skipped rather than failing the login
+			hasher.upgradeInBackground("fourth", hash -> { });
+
+			release.countDown();
+			assertTrue(drained.await(10, TimeUnit.SECONDS));
+			assertTrue(hasher.matches("fifth", hasher.encode("fifth")));
+		} finally {
+			release.countDown();
+			hasher.shutdown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A background rehash must not undo a password change committed after the login that
+ * started it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PasswordUpgradeTest {
+
+	private static final long USER = 1001;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String storedHash() {
+		return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, USER);
+	}
+
+	@Test
+	void staleOldHashIsNotReplaced() {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+		String loginHash = encoder.encode("old password");
+		String changedHash = encoder.encode("new password");
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (?, 'upgrade1001', ?, 'upgrade1001@example.com')",
+				USER, loginHash);
+		// The password is changed while the login's rehash is still running
+		jdbcTemplate.update("UPDATE users SET password = ? WHERE id = ?", changedHash, USER);
+
+		assertEquals(0, userRepository.replacePasswordHash(USER, loginHash, encoder.encode("old password")));
+		assertEquals(changedHash, storedHash());
+
+		String upgraded = new BCryptPasswordEncoder(10).encode("new password");
+		assertEquals(1, userRepository.replacePasswordHash(USER, changedHash, upgraded));
+		assertEquals(upgraded, storedHash());
+	}
+}
@@ -0,0 +1,102 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadCoalescerTest {
+
+	private static final int CALLERS = 8;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	void stopCallers() {
+		callers.shutdownNow();
+	}
+
+	private ReadCoalescer coalescer() {
+		ReadCoalescer coalescer = new ReadCoalescer();
+		ReflectionTestUtils.setField(coalescer, "meterRegistry", meterRegistry);
+		return coalescer;
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.counter("books.reads", "path", "list", "outcome", outcome).count();
+	}
+
+	// Starts every caller and returns once all but the first are waiting on its load
+	private <T> List<Future<T>> callConcurrently(ReadCoalescer coalescer, Callable<T> loader) throws InterruptedException {
+		List<Future<T>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(callers.submit(() -> coalescer.execute("list", "1:7", loader)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (count("coalesced") < CALLERS - 1) {
+			assertTrue(System.nanoTime() < deadline, "callers did not join the load in flight");
+			Thread.sleep(5);
+		}
+		return results;
+	}
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		ReadCoalescer coalescer = coalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		List<Future<Object>> results = callConcurrently(coalescer, () -> {
+			loads.incrementAndGet();
+			release.await();
+			return new Object();
+		});
+
+		release.countDown();
+		Object first = results.get(0).get(10, TimeUnit.SECONDS);
+		for (Future<Object> result : results) {
+			assertSame(first, result.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, count("executed"));
+	}
+
+	@Test
+	void failureReachesEveryJoinedCallerAndIsNotKept() throws Exception {
+		ReadCoalescer coalescer = coalescer();
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalStateException failure = new IllegalStateException("database unavailable");
+		List<Future<Object>> results = callConcurrently(coalescer, () -> {
+			release.await();
+			throw failure;
+		});
+
+		release.countDown();
+		for (Future<Object> result : results) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+			assertSame(failure, e.getCause());
+		}
+
+		// The failed load is gone, so the next call runs the loader again
+		assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(coalescer, "inFlight")).isEmpty());
+		assertEquals("loaded", coalescer.execute("list", "1:7", () -> "loaded"));
+		assertEquals(2, count("executed"));
+	}
+}
@@ -0,0 +1,79 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Writes made by another instance reach this one only as library events; the caches and
+ * the search index must follow them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RemoteLibraryEventsTest {
+
+	private static final String OTHER_INSTANCE = "other-instance";
+
+	@Autowired
+	private LibraryEventBroker broker;
+
+	@Autowired
+	private LibraryCache libraryCache;
+
+	@Autowired
+	private BookSearchIndex searchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private List<Long> search(String text) {
+		return searchIndex.search(401L, null, null, text, null, null, 10).getIds();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.getAsBoolean()) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("the event was not applied");
+	}
+
+	@Test
+	void followsWritesOfOtherInstances() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES (401, 'remote401', 'hash', 'remote401@example.com')");
+		// Looked up before it exists, so "no such book" is cached
+		assertNull(libraryCache.findBookOwner(401500L));
+		long generation = libraryCache.generation(401L);
+
+		jdbcTemplate.update("INSERT INTO books (id, title, author, pages_total, pages_read, created_at, updated_at, version, user_id) "
+				+ "VALUES (401500, 'Elsewhere', 'Author', 100, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 401)");
+		broker.publish(new LibraryEvent(401L, LibraryEvent.ADDED, 401500L, OTHER_INSTANCE));
+
+		assertEquals(401L, libraryCache.findBookOwner(401500L));
+		assertNotEquals(generation, libraryCache.generation(401L));
+		await(() -> search("elsewhere").equals(List.of(401500L)));
+
+		jdbcTemplate.update("UPDATE books SET title = 'Renamed' WHERE id = 401500");
+		broker.publish(new LibraryEvent(401L, LibraryEvent.UPDATED, 401500L, OTHER_INSTANCE));
+		await(() -> search("renamed").equals(List.of(401500L)) && search("elsewhere").isEmpty());
+
+		jdbcTemplate.update("DELETE FROM books WHERE id = 401500");
+		generation = libraryCache.generation(401L);
+		broker.publish(new LibraryEvent(401L, LibraryEvent.DELETED, 401500L, OTHER_INSTANCE));
+
+		assertNull(libraryCache.findBookOwner(401500L));
+		assertNotEquals(generation, libraryCache.generation(401L));
+		await(() -> search("renamed").isEmpty());
+	}
+}
@@ -0,0 +1,102 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A request that reads on a replica and then writes must still write on the primary.
+ * The replica is an H2 file database opened read-only, so a write sent to it fails.
+ */
+@SpringBootTest(properties = {
+		"datasource.replicas.enabled=true",
+		// The replica's heartbeat never moves, so any lag is accepted
+		"datasource.replicas.max-lag=36500d",
+		"datasource.replicas.check-interval=100ms"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+	private static final Path REPLICA_DIR = Paths.get("target", "replica-routing").toAbsolutePath();
+	private static final String REPLICA_URL = "jdbc:h2:file:" + REPLICA_DIR.resolve("replica")
+			+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@DynamicPropertySource
+	static void replica(DynamicPropertyRegistry registry) throws Exception {
+		FileSystemUtils.deleteRecursively(REPLICA_DIR);
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+		seed(new JdbcTemplate(dataSource));
+		new JdbcTemplate(dataSource).execute("SHUTDOWN");
+		registry.add("datasource.replicas.urls", () -> REPLICA_URL + ";ACCESS_MODE_DATA=r");
+	}
+
+	private static void seed(JdbcTemplate jdbc) {
+		jdbc.update("INSERT INTO users (id, username, password, email) VALUES (110, 'replica110', 'hash', 'replica110@example.com')");
+		jdbc.update("INSERT INTO books (id, title, author, pages_total, pages_read, created_at, updated_at, version, user_id) "
+				+ "VALUES (110000, 'Before', 'Author', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, 110)");
+	}
+
+	@Test
+	void writeAfterReplicaReadGoesToThePrimary() throws Exception {
+		seed(jdbcTemplate);
+		awaitReplica();
+		double replicaReads = replicaReads();
+
+		// Adding a book first looks the user up in a read-only transaction, then inserts
+		mockMvc.perform(multipart("/api/books")
+						.param("title", "Added")
+						.param("author", "Author")
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("replica110", 110L)))
+				.andExpect(status().isOk());
+
+		assertTrue(replicaReads() > replicaReads, "the user should have been read on the replica");
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE user_id = 110 AND title = 'Added'", Integer.class));
+	}
+
+	private void awaitReplica() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			Double lag = meterRegistry.get("datasource.replica.lag").gauge().value();
+			if (!lag.isNaN()) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("replica never became usable");
+	}
+
+	private double replicaReads() {
+		return meterRegistry.get("datasource.reads").tag("route", "replica").counter().count();
+	}
+}
@@ -0,0 +1,200 @@
+package com.Personal_Libarary_Management_System.DevOps_Project;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs each repository query against a seeded H2 database (schema from the Flyway
+ * migrations) and fails if its plan reads all of books or users.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.Personal_Libarary_Management_System.DevOps_Project.RepositoryQueryPlanTest$RecordedStatements"
+})
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+	private static final int USERS = 20;
+	private static final int BOOKS_PER_USER = 100;
+	// Book n of the seed has id FIRST_BOOK + n, far above the ids books_seq hands out to other tests
+	private static final long FIRST_BOOK = 1_000_000;
+	// How H2 shows index access in a plan: /* public.idx_books_user_title: user_id = ?1 */
+	private static final Pattern INDEX_ACCESS = Pattern.compile("/\\* public\\.(\\w+)(?:: (.*?))? \\*/");
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookQueryService bookQueryService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void seed() {
+		if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id <= ?", Long.class, USERS) > 0) {
+			return;
+		}
+		List<Object[]> users = new ArrayList<>();
+		List<Object[]> books = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (long user = 1; user <= USERS; user++) {
+			users.add(new Object[] {user, "user" + user, "hash", "user" + user + "@example.com"});
+			for (int i = 0; i < BOOKS_PER_USER; i++) {
+				long n = (user - 1) * BOOKS_PER_USER + i + 1;
+				LocalDateTime at = start.plusMinutes(n);
+				books.add(new Object[] {FIRST_BOOK + n, "Title " + n, "Author " + (n % 37), 300, (int) (n % 300),
+						n * 1000, at, at, user});
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email) VALUES (?, ?, ?, ?)", users);
+		jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, pages_total, pages_read, image_size, "
+				+ "created_at, updated_at, version, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)", books);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@Test
+	void repositoryQueriesUseAnIndex() {
+		Map<String, Runnable> calls = new LinkedHashMap<>();
+		calls.put("BookRepository.findByUserId", () -> bookRepository.findByUserId(3L));
+		calls.put("BookRepository.sumImageSize", () -> bookRepository.sumImageSize(3L, FIRST_BOOK + 201));
+		calls.put("BookRepository.findOwnerId", () -> bookRepository.findOwnerId(FIRST_BOOK + 201));
+		calls.put("BookRepository.deleteOwned", () -> bookRepository.deleteOwned(FIRST_BOOK + 201, 4L));
+		calls.put("BookRepository.findVersion", () -> bookRepository.findVersion(FIRST_BOOK + 201));
+		calls.put("BookRepository.deleteOwnedAtVersion", () -> bookRepository.deleteOwnedAtVersion(FIRST_BOOK + 201, 4L, 0));
+		calls.put("BookRepository.findChangedAfter", () -> bookRepository.findChangedAfter(3L,
+				LocalDateTime.of(2024, 1, 1, 3, 0), FIRST_BOOK + 180, LocalDateTime.of(2024, 1, 2, 0, 0), PageRequest.ofSize(50)));
+		calls.put("BookRepository.streamByUserId", () -> transactionTemplate.executeWithoutResult(
+				status -> bookRepository.streamByUserId(3L).forEach(book -> { })));
+		// Walks every book in id order on purpose (search index rebuild); a primary key range, not a scan
+		calls.put("BookRepository.findSearchDocumentsAfter",
+				() -> bookRepository.findSearchDocumentsAfter(FIRST_BOOK + 1000, PageRequest.ofSize(500)));
+		calls.put("BookRepository.findSearchDocument", () -> bookRepository.findSearchDocument(FIRST_BOOK + 201));
+		calls.put("BookRepository.findSearchDocumentsByUserId", () -> bookRepository.findSearchDocumentsByUserId(3L));
+		calls.put("UserRepository.findByUsername", () -> userRepository.findByUsername("user3"));
+		calls.put("UserRepository.findByEmail", () -> userRepository.findByEmail("user3@example.com"));
+		calls.put("UserRepository.replacePasswordHash", () -> userRepository.replacePasswordHash(3L, "other", "hash"));
+		calls.put("UserRepository.lockById", () -> transactionTemplate.executeWithoutResult(
+				status -> userRepository.lockById(3L)));
+		for (BookSort sort : BookSort.values()) {
+			calls.put("BookQueryService.listBooks " + sort, () -> {
+				BookPage first = bookQueryService.listBooks(3L, sort, null, null, 10, true);
+				bookQueryService.listBooks(3L, sort, null, first.getNextCursor(), 10, false);
+			});
+		}
+
+		Set<String> declared = new TreeSet<>();
+		for (Class<?> repository : List.of(BookRepository.class, UserRepository.class)) {
+			for (Method method : repository.getDeclaredMethods()) {
+				declared.add(repository.getSimpleName() + "." + method.getName());
+			}
+		}
+		Set<String> covered = new TreeSet<>();
+		for (String name : calls.keySet()) {
+			covered.add(name.split(" ")[0]);
+		}
+		declared.removeAll(covered);
+		assertTrue(declared.isEmpty(), "Repository methods missing from this check: " + declared);
+
+		Map<String, String> leadingColumns = new HashMap<>();
+		jdbcTemplate.query("SELECT index_name, column_name FROM information_schema.index_columns "
+				+ "WHERE table_schema = 'public' AND ordinal_position = 1",
+				row -> { leadingColumns.put(row.getString(1), row.getString(2)); });
+		// The check itself still recognises both kinds of scan in this H2 version's plans
+		assertTrue(isFullScan(explain("SELECT id FROM books WHERE description = ?"), leadingColumns));
+		assertTrue(isFullScan(explain("SELECT id FROM books WHERE title = ?"), leadingColumns));
+
+		List<String> scans = new ArrayList<>();
+		for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+			List<String> statements = RecordedStatements.during(call.getValue());
+			assertFalse(statements.isEmpty(), call.getKey() + " ran no SQL");
+			for (String sql : statements) {
+				String plan = explain(sql);
+				if (isFullScan(plan, leadingColumns)) {
+					scans.add(call.getKey() + ":\n" + plan);
+				}
+			}
+		}
+		assertEquals(List.of(), scans, "Full table scans");
+	}
+
+	private String explain(String sql) {
+		return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class).get(0);
+	}
+
+	/**
+	 * True if the plan reads books or users end to end: a table scan, or a walk through an
+	 * index whose leading column has no condition (H2 still names the index in that case).
+	 */
+	private static boolean isFullScan(String plan, Map<String, String> leadingColumns) {
+		if (plan.contains("public.books.tableScan") || plan.contains("public.users.tableScan")) {
+			return true;
+		}
+		Matcher access = INDEX_ACCESS.matcher(plan);
+		while (access.find()) {
+			String leading = leadingColumns.get(access.group(1));
+			String condition = access.group(2);
+			if (leading == null || condition == null || !Pattern.compile("\\b" + leading + "\\b").matcher(condition).find()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Hibernate hook that collects the SQL of every statement while a call is recorded.
+	 */
+	public static class RecordedStatements implements StatementInspector {
+
+		private static final ThreadLocal<List<String>> recording = new ThreadLocal<>();
+
+		static List<String> during(Runnable call) {
+			List<String> statements = new ArrayList<>();
+			recording.set(statements);
+			try {
+				call.run();
+			} finally {
+				recording.remove();
+			}
+			return statements;
+		}
+
+		@Override
+		public String inspect(String sql) {
+			List<String> statements = recording.get();
+			if (statements != null) {
+				statements.add(sql);
+			}
+			return sql;
+		}
+	}
+}
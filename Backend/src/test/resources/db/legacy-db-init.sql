@@ -1,56 +1,41 @@
--- Personal Library Management System - Database Initialization Script
--- This script creates all necessary tables for the application
-
--- Use the database (it's already created by Docker)
-USE librarydb;
-
--- Users table
-CREATE TABLE IF NOT EXISTS users (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    username VARCHAR(50) NOT NULL UNIQUE,
-    password VARCHAR(255) NOT NULL,
-    email VARCHAR(100) UNIQUE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-);
-
--- Books table
-CREATE TABLE IF NOT EXISTS books (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    title VARCHAR(255) NOT NULL,
-    author VARCHAR(255) NOT NULL,
-    description TEXT,
-    image_path VARCHAR(500),
-    pages_total INT DEFAULT 0,
-    pages_read INT DEFAULT 0,
-    user_id BIGINT NOT NULL,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-);
-
--- Create indexes for better performance
-CREATE INDEX IF NOT EXISTS idx_books_user_id ON books(user_id);
-CREATE INDEX IF NOT EXISTS idx_books_title ON books(title);
-CREATE INDEX IF NOT EXISTS idx_books_author ON books(author);
-CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
-CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
-
--- Backfill for existing databases created before these columns were added
-ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_total INT DEFAULT 0;
-ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_read INT DEFAULT 0;
-
--- Insert sample data
--- Password: admin123 (BCrypt encoded)
-INSERT INTO users (username, password, email) VALUES 
-('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2', 'admin@library.com'),
-('testuser', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2', 'user@library.com');
-
--- Insert sample books
-INSERT INTO books (title, author, description, user_id) VALUES 
-('The Great Gatsby', 'F. Scott Fitzgerald', 'A classic American novel set in the Jazz Age', 1),
-('To Kill a Mockingbird', 'Harper Lee', 'A gripping tale of racial injustice in the American South', 1),
-('1984', 'George Orwell', 'A dystopian social science fiction novel', 1),
-('Pride and Prejudice', 'Jane Austen', 'A romantic novel of manners', 2),
-('The Catcher in the Rye', 'J.D. Salinger', 'Coming-of-age story set in 1950s New York', 2);
-
+-- The first db-init.sql, before migrations (H2 in MySQL mode): no version or image_size
+-- columns, TEXT descriptions, AUTO_INCREMENT ids and none of the later tables or indexes.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(100) UNIQUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    description TEXT,
+    image_path VARCHAR(500),
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_books_user_id ON books(user_id);
+CREATE INDEX IF NOT EXISTS idx_books_title ON books(title);
+CREATE INDEX IF NOT EXISTS idx_books_author ON books(author);
+
+ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_total INT DEFAULT 0;
+ALTER TABLE books ADD COLUMN IF NOT EXISTS pages_read INT DEFAULT 0;
+
+INSERT INTO users (username, password, email) VALUES
+('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2', 'admin@library.com'),
+('testuser', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFe5ldjoiKDpjIsIQaQMQZ2', 'user@library.com');
+
+INSERT INTO books (title, author, description, user_id) VALUES
+('The Great Gatsby', 'F. Scott Fitzgerald', 'A classic American novel set in the Jazz Age', 1),
+('To Kill a Mockingbird', 'Harper Lee', 'A gripping tale of racial injustice in the American South', 1),
+('1984', 'George Orwell', 'A dystopian social science fiction novel', 1),
+('Pride and Prejudice', 'Jane Austen', 'A romantic novel of manners', 2),
+('The Catcher in the Rye', 'J.D. Salinger', 'Coming-of-age story set in 1950s New York', 2);
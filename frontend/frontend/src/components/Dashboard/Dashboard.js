@@ -1,6 +1,6 @@
 import React, { useState, useEffect, useMemo } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { getBooks, addBook, updateBook, deleteBook, removeAuthToken } from '../../services/api';
+import { getBooks, addBook, updateBook, updateProgress, deleteBook, removeAuthToken, subscribeToLibraryEvents } from '../../services/api';
 import Sidebar from '../Sidebar/Sidebar';
 
 function Dashboard() {
@@ -42,6 +42,17 @@ function Dashboard() {
     
     setUsername(user || 'User');
     fetchBooks();
+
+    // Reload when the library changes elsewhere; a burst of events causes one reload
+    let reload = null;
+    const unsubscribe = subscribeToLibraryEvents(() => {
+      clearTimeout(reload);
+      reload = setTimeout(fetchBooks, 300);
+    });
+    return () => {
+      clearTimeout(reload);
+      unsubscribe();
+    };
   }, [navigate]);
 
   const fetchBooks = async () => {
@@ -144,7 +155,18 @@ function Dashboard() {
         return;
       }
       if (editingId) {
-        await updateBook(editingId, formData.title, formData.author, formData.description, formData.image, pagesTotal, pagesRead);
+        const original = books.find(b => b.id === editingId);
+        const onlyProgressChanged = original && !formData.image
+          && original.title === formData.title
+          && original.author === formData.author
+          && (original.description || '') === (formData.description || '')
+          && (original.pagesTotal || 0) === pagesTotal;
+        if (onlyProgressChanged) {
+          await updateProgress(editingId, pagesRead);
+        } else {
+          await updateBook(editingId, formData.title, formData.author, formData.description, formData.image, pagesTotal, pagesRead,
+            original ? original.version : undefined);
+        }
         setEditingId(null);
       } else {
         await addBook(formData.title, formData.author, formData.description, formData.image, pagesTotal, pagesRead);
@@ -174,10 +196,11 @@ function Dashboard() {
   const handleDelete = async (id) => {
     if (window.confirm('Are you sure you want to delete this book?')) {
       try {
-        await deleteBook(id);
+        const book = books.find(b => b.id === id);
+        await deleteBook(id, book ? book.version : undefined);
         fetchBooks();
       } catch (err) {
-        setError('Failed to delete book');
+        setError(err.message || 'Failed to delete book');
       }
     }
   };
@@ -345,7 +368,7 @@ function Dashboard() {
               >
                 {book.imagePath && (
                   <img 
-                    src={`${process.env.REACT_APP_API_URL || window.REACT_APP_API_URL || 'http://localhost:5001'}/api/images/${(book.imagePath || '').split('/').pop()}`} 
+                    src={`${process.env.REACT_APP_API_URL || window.REACT_APP_API_URL || 'http://localhost:5001'}${book.thumbnailUrls?.['256'] || `/api/images/${(book.imagePath || '').split('/').pop()}`}`} 
                     alt={book.title}
                     className="w-full h-40 object-cover"
                   />
@@ -1,153 +1,271 @@
-// API Service for communicating with the backend
-// Prefer build-time REACT_APP_API_URL, fall back to a window global (if injected at runtime),
-// then to the host mapped by docker-compose used in this workspace.
-const API_BASE_URL = 'http://localhost:5001';
-
-export const getAuthToken = () => {
-  return localStorage.getItem('authToken');
-};
-
-export const setAuthToken = (token) => {
-  localStorage.setItem('authToken', token);
-};
-
-export const removeAuthToken = () => {
-  localStorage.removeItem('authToken');
-};
-
-export const getHeaders = () => {
-  const token = getAuthToken();
-  return {
-    'Content-Type': 'application/json',
-    ...(token && { 'Authorization': `Bearer ${token}` })
-  };
-};
-
-// Auth APIs
-export const login = async (username, password) => {
-  const response = await fetch(`${API_BASE_URL}/api/auth/login`, {
-    method: 'POST',
-    headers: { 'Content-Type': 'application/json' },
-    body: JSON.stringify({ username, password })
-  });
-  if (!response.ok) {
-    throw new Error('Login failed');
-  }
-  return response.json();
-};
-
-export const register = async (username, email, password) => {
-  const response = await fetch(`${API_BASE_URL}/api/register`, {
-    method: 'POST',
-    headers: { 'Content-Type': 'application/json' },
-    body: JSON.stringify({ username, email, password })
-  });
-  if (!response.ok) {
-    throw new Error('Registration failed');
-  }
-  return response.json();
-};
-
-// Book APIs
-export const getBooks = async () => {
-  try {
-    const headers = getHeaders();
-    console.log('Fetching books from:', `${API_BASE_URL}/api/books`);
-    console.log('Headers:', headers);
-    
-    const response = await fetch(`${API_BASE_URL}/api/books`, {
-      method: 'GET',
-      headers
-    });
-    
-    console.log('Response status:', response.status);
-    
-    if (!response.ok) {
-      let body = null;
-      try { body = await response.text(); } catch (e) { /* ignore */ }
-      throw new Error(`Failed to fetch books (status ${response.status})${body ? ': ' + body : ''}`);
-    }
-    
-    const data = await response.json();
-    console.log('Books fetched successfully:', data);
-    return data;
-  } catch (error) {
-    console.error('Error in getBooks:', error);
-    if (error.name === 'TypeError' && error.message.includes('fetch')) {
-      throw new Error('Network error: Unable to connect to server. Please check if the backend is running.');
-    }
-    throw error;
-  }
-};
-
-export const addBook = async (title, author, description, image, pagesTotal, pagesRead) => {
-  const token = getAuthToken();
-  const formData = new FormData();
-  formData.append('title', title);
-  formData.append('author', author);
-  formData.append('description', description);
-  if (typeof pagesTotal === 'number') {
-    formData.append('pagesTotal', String(pagesTotal));
-  }
-  if (typeof pagesRead === 'number') {
-    formData.append('pagesRead', String(pagesRead));
-  }
-  if (image) {
-    formData.append('image', image);
-  }
-
-  const response = await fetch(`${API_BASE_URL}/api/books`, {
-    method: 'POST',
-    headers: {
-      'Authorization': `Bearer ${token}`
-    },
-    body: formData
-  });
-  if (!response.ok) {
-    throw new Error('Failed to add book');
-  }
-  return response.json();
-};
-
-export const updateBook = async (id, title, author, description, image, pagesTotal, pagesRead) => {
-  const token = getAuthToken();
-  const formData = new FormData();
-  formData.append('title', title);
-  formData.append('author', author);
-  formData.append('description', description);
-  if (typeof pagesTotal === 'number') {
-    formData.append('pagesTotal', String(pagesTotal));
-  }
-  if (typeof pagesRead === 'number') {
-    formData.append('pagesRead', String(pagesRead));
-  }
-  if (image) {
-    formData.append('image', image);
-  }
-
-  const response = await fetch(`${API_BASE_URL}/api/books/${id}`, {
-    method: 'PUT',
-    headers: {
-      'Authorization': `Bearer ${token}`
-    },
-    body: formData
-  });
-  if (!response.ok) {
-    throw new Error('Failed to update book');
-  }
-  return response.json();
-};
-
-export const deleteBook = async (id) => {
-  const headers = getHeaders();
-  const response = await fetch(`${API_BASE_URL}/api/books/${id}`, {
-    method: 'DELETE',
-    headers
-  });
-  if (!response.ok) {
-    let body = null;
-    try { body = await response.text(); } catch (e) { /* ignore */ }
-    throw new Error(`Failed to delete book (status ${response.status})${body ? ': ' + body : ''}`);
-  }
-  return response.json();
-};
+// API Service for communicating with the backend
+// Prefer build-time REACT_APP_API_URL, fall back to a window global (if injected at runtime),
+// then to the host mapped by docker-compose used in this workspace.
+const API_BASE_URL = 'http://localhost:5001';
+
+export const getAuthToken = () => {
+  return localStorage.getItem('authToken');
+};
+
+export const setAuthToken = (token) => {
+  localStorage.setItem('authToken', token);
+};
+
+export const removeAuthToken = () => {
+  localStorage.removeItem('authToken');
+};
+
+export const getHeaders = () => {
+  const token = getAuthToken();
+  return {
+    'Content-Type': 'application/json',
+    ...(token && { 'Authorization': `Bearer ${token}` })
+  };
+};
+
+// Auth APIs
+export const login = async (username, password) => {
+  const response = await fetch(`${API_BASE_URL}/api/auth/login`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username, password })
+  });
+  if (!response.ok) {
+    throw new Error('Login failed');
+  }
+  return response.json();
+};
+
+export const register = async (username, email, password) => {
+  const response = await fetch(`${API_BASE_URL}/api/register`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ username, email, password })
+  });
+  if (!response.ok) {
+    throw new Error('Registration failed');
+  }
+  return response.json();
+};
+
+// Book APIs
+// The list endpoint is paginated: follow X-Next-Cursor until the last page
+export const getBooks = async () => {
+  try {
+    const headers = getHeaders();
+    console.log('Fetching books from:', `${API_BASE_URL}/api/books`);
+    
+    const data = [];
+    let cursor = null;
+    do {
+      const query = cursor ? `?limit=200&cursor=${encodeURIComponent(cursor)}` : '?limit=200';
+      const response = await fetch(`${API_BASE_URL}/api/books${query}`, {
+        method: 'GET',
+        headers
+      });
+      
+      if (!response.ok) {
+        let body = null;
+        try { body = await response.text(); } catch (e) { /* ignore */ }
+        throw new Error(`Failed to fetch books (status ${response.status})${body ? ': ' + body : ''}`);
+      }
+      
+      data.push(...(await response.json()));
+      cursor = response.headers.get('X-Next-Cursor');
+    } while (cursor);
+    
+    console.log('Books fetched successfully:', data.length);
+    return data;
+  } catch (error) {
+    console.error('Error in getBooks:', error);
+    if (error.name === 'TypeError' && error.message.includes('fetch')) {
+      throw new Error('Network error: Unable to connect to server. Please check if the backend is running.');
+    }
+    throw error;
+  }
+};
+
+// Quota (413) and rate-limit (429) refusals carry a message worth showing as is
+const refusalMessage = async (response) => {
+  const body = await response.json().catch(() => ({}));
+  return body.message || `Request refused (status ${response.status})`;
+};
+
+export const addBook = async (title, author, description, image, pagesTotal, pagesRead) => {
+  const token = getAuthToken();
+  const formData = new FormData();
+  formData.append('title', title);
+  formData.append('author', author);
+  formData.append('description', description);
+  if (typeof pagesTotal === 'number') {
+    formData.append('pagesTotal', String(pagesTotal));
+  }
+  if (typeof pagesRead === 'number') {
+    formData.append('pagesRead', String(pagesRead));
+  }
+  if (image) {
+    formData.append('image', image);
+  }
+
+  const response = await fetch(`${API_BASE_URL}/api/books`, {
+    method: 'POST',
+    headers: {
+      'Authorization': `Bearer ${token}`
+    },
+    body: formData
+  });
+  if (response.status === 413 || response.status === 429) {
+    throw new Error(await refusalMessage(response));
+  }
+  if (!response.ok) {
+    throw new Error('Failed to add book');
+  }
+  return response.json();
+};
+
+// Pass the version the book was loaded with to reject the edit if it changed meanwhile (412)
+const ifMatch = (version) => (typeof version === 'number' ? { 'If-Match': `"${version}"` } : {});
+
+const CONFLICT_MESSAGE = 'This book was changed elsewhere. Reload and try again.';
+
+export const updateBook = async (id, title, author, description, image, pagesTotal, pagesRead, version) => {
+  const token = getAuthToken();
+  const formData = new FormData();
+  formData.append('title', title);
+  formData.append('author', author);
+  formData.append('description', description);
+  if (typeof pagesTotal === 'number') {
+    formData.append('pagesTotal', String(pagesTotal));
+  }
+  if (typeof pagesRead === 'number') {
+    formData.append('pagesRead', String(pagesRead));
+  }
+  if (image) {
+    formData.append('image', image);
+  }
+
+  const response = await fetch(`${API_BASE_URL}/api/books/${id}`, {
+    method: 'PUT',
+    headers: {
+      'Authorization': `Bearer ${token}`,
+      ...ifMatch(version)
+    },
+    body: formData
+  });
+  if (response.status === 412) {
+    throw new Error(CONFLICT_MESSAGE);
+  }
+  if (response.status === 413 || response.status === 429) {
+    throw new Error(await refusalMessage(response));
+  }
+  if (!response.ok) {
+    throw new Error('Failed to update book');
+  }
+  return response.json();
+};
+
+// Progress-only update: no form upload, the server touches pagesRead alone
+export const updateProgress = async (id, pagesRead) => {
+  const response = await fetch(`${API_BASE_URL}/api/books/${id}/progress`, {
+    method: 'PATCH',
+    headers: getHeaders(),
+    body: JSON.stringify({ pagesRead })
+  });
+  if (!response.ok) {
+    throw new Error('Failed to update progress');
+  }
+};
+
+// updates: [{ id, pagesRead }, ...]; resolves to { updated, failed: [{ id, message }] }
+export const updateProgressBatch = async (updates) => {
+  const response = await fetch(`${API_BASE_URL}/api/books/progress`, {
+    method: 'PATCH',
+    headers: getHeaders(),
+    body: JSON.stringify(updates)
+  });
+  if (!response.ok) {
+    throw new Error('Failed to update progress');
+  }
+  return response.json();
+};
+
+// Push channel: calls onChange(type, event) when this user's library changes in any tab or
+// device. Returns a function that closes the stream. The stream is opened with a single-use
+// ticket rather than the token, so EventSource's own reconnect would be refused: on error a
+// new ticket is fetched, and a "changed" event tells the caller to reload what it missed.
+const EVENTS_RECONNECT_MS = 5000;
+
+export const subscribeToLibraryEvents = (onChange) => {
+  if (!getAuthToken() || typeof EventSource === 'undefined') {
+    return () => {};
+  }
+  let source = null;
+  let retry = null;
+  let closed = false;
+
+  const reconnect = () => {
+    if (!closed) {
+      retry = setTimeout(() => open(true), EVENTS_RECONNECT_MS);
+    }
+  };
+
+  const open = async (reconnecting) => {
+    let ticket;
+    try {
+      const response = await fetch(`${API_BASE_URL}/api/books/events/ticket`, {
+        method: 'POST',
+        headers: getHeaders()
+      });
+      if (response.status === 401) {
+        return;
+      }
+      if (!response.ok) {
+        throw new Error(`Failed to get an event stream ticket (status ${response.status})`);
+      }
+      ({ ticket } = await response.json());
+    } catch (e) {
+      reconnect();
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    source = new EventSource(`${API_BASE_URL}/api/books/events?ticket=${encodeURIComponent(ticket)}`);
+    ['added', 'updated', 'deleted', 'changed'].forEach((type) => {
+      source.addEventListener(type, (event) => onChange(type, JSON.parse(event.data)));
+    });
+    source.onerror = () => {
+      source.close();
+      reconnect();
+    };
+    if (reconnecting) {
+      source.onopen = () => onChange('changed', {});
+    }
+  };
+
+  open(false);
+  return () => {
+    closed = true;
+    clearTimeout(retry);
+    if (source) {
+      source.close();
+    }
+  };
+};
+
+export const deleteBook = async (id, version) => {
+  const headers = { ...getHeaders(), ...ifMatch(version) };
+  const response = await fetch(`${API_BASE_URL}/api/books/${id}`, {
+    method: 'DELETE',
+    headers
+  });
+  if (response.status === 412) {
+    throw new Error(CONFLICT_MESSAGE);
+  }
+  if (!response.ok) {
+    let body = null;
+    try { body = await response.text(); } catch (e) { /* ignore */ }
+    throw new Error(`Failed to delete book (status ${response.status})${body ? ': ' + body : ''}`);
+  }
+  return response.json();
+};
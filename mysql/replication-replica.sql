@@ -0,0 +1,9 @@
+-- Follows the compose "mysql" service from its first transaction (GTID auto-positioning),
+-- so the replica has to start together with a fresh primary volume
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_USER = 'replicator',
+    SOURCE_PASSWORD = 'replicatorpass',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
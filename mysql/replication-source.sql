@@ -0,0 +1,3 @@
+-- Account the read replica (compose profile "replica") replicates with
+CREATE USER 'replicator'@'%' IDENTIFIED BY 'replicatorpass';
+GRANT REPLICATION SLAVE ON *.* TO 'replicator'@'%';